@@ -11,15 +11,22 @@ public abstract class ArenaItem {
 	private double x, y;
 	private int radius;
 	private char colour;
-	private static int objectCount;
-	private int objectID;
+	private int objectID = -1; // given by the arena the item is added to, -1 until then
+	private int[] slots = {-1, -1, -1}; // where the item is in each kind of SlotList, -1 when not in one
+	private int neighbourIndex = -1; // where the item is in its arena's neighbour lists, -1 when not in them
 	private boolean isParty; // party mode
 	protected static char[] COLOURS = {'r','o','y','g','b'};
 	protected static int COLOUR_COOLDOWN_PERIOD = 100; // time between each colour change
 	protected static int PARTY_LENGTH = 1000; // how long party mode lasts for
-	protected int partyCooldownLength; // time left of party mode
-	protected int colourCooldown; // time left between colour changes
 	protected int currentColourIndex; // current colour - used for party mode
+	static final int PARTY_END = 0, COLOUR_CHANGE = 1, COOLDOWN_END = 2, RETARGET = 3; // kinds of timer an item can have
+	private TimerWheel timerWheel; // wheel of the arena the item is in, null until added to one
+	private TimerWheel.Timer[] timers = new TimerWheel.Timer[4]; // one of each kind, created when first scheduled
+	private WallTree walls; // walls of the arena the item is in, null until added to one
+	private boolean isDrawn; // if the item has been drawn since it was added
+	private double drawnX, drawnY, drawnExtent; // where the item was last drawn, used for redrawing only what changed
+	private char drawnColour; // colour the item was last drawn in
+	private String status; // cached toString, null when it needs rebuilding
 	
 	private Random random;
 	
@@ -33,7 +40,6 @@ public abstract class ArenaItem {
 		x = _x;
 		y = _y;
 		radius = _radius;
-		objectID = objectCount++;
 		colour = _colour;
 	}
 	
@@ -44,13 +50,19 @@ public abstract class ArenaItem {
 	 * @param mc Canvas needed to determine where to place ArenaItem
 	 */
 	ArenaItem(int _radius, char _colour, MyCanvas mc, RobotArena myArena){
-		random = new Random();
+		random = myArena.getRandom(); // seeded by the arena, so runs can be repeated
 		radius = _radius;
+		SpawnPlacementEvent placement = new SpawnPlacementEvent();
+		placement.begin();
 		do {
 			x = random.nextInt(radius+5, mc.getXCanvasSize()-radius);
 			y = random.nextInt(radius+5, mc.getYCanvasSize()-radius);
-		} while(myArena.anyCollisions(this, mc));
-		objectID = objectCount++;
+			placement.attempts++;
+		} while(myArena.anyCollisions(this, mc) || myArena.getWalls().anyWithin(x, y, radius + 10)); // room for wheels, clear of walls
+		if (placement.shouldCommit()) {
+			placement.itemType = getClass().getSimpleName();
+			placement.commit();
+		}
 		colour = _colour;
 	}
 	
@@ -59,11 +71,7 @@ public abstract class ArenaItem {
 	 * @param mc canvas needed to draw object
 	 */
 	public void drawObject(MyCanvas mc){
-		if (isParty) {
-			mc.showCircle(x, y, radius, partyMode());
-		} else {
-			mc.showCircle(x, y, radius, colour);
-		}
+		mc.showCircle(x, y, radius, getDrawColour());
 	}
 	
 	/** 
@@ -94,20 +102,121 @@ public abstract class ArenaItem {
     /**
      * Party mode, where objects will move faster and have a rainbow colour for a few seconds.
      * They can either receive this effect from the Party Obstacle, or from an infected robot.
+     * The colour is moved on by a timer, so drawing doesn't change anything.
      * @return What colour the item needs to be
      */
     public char partyMode() {
-    	colourCooldown--; // time between colour changes
-    	partyCooldownLength--; // party mode length
-    	if (colourCooldown <= 0) { // handles how fast the colours change
-    		currentColourIndex = (currentColourIndex + 1) % COLOURS.length;
-    		colourCooldown = COLOUR_COOLDOWN_PERIOD;
-    	} else if (partyCooldownLength <= 0) {
-    		setParty(); // turns off party when finished
-    	}
     	return COLOURS[currentColourIndex];
     }
     
+    /**
+     * Getter - Provides the colour the item is drawn in, its party colour when in party mode.
+     * @return Colour the item is drawn in.
+     */
+    protected char getDrawColour() {
+    	return isParty ? partyMode() : colour;
+    }
+    
+    /**
+     * Called by the arena's timer wheel when one of the item's timers goes off.
+     * @param kind Which timer went off, eg PARTY_END.
+     */
+    protected void onTimer(int kind) {
+    	switch (kind) {
+    	case PARTY_END:
+    		if (isParty) {
+    			setParty(); // turns off party when finished
+    		}
+    		break;
+    	case COLOUR_CHANGE:
+    		if (isParty) {
+    			currentColourIndex = (currentColourIndex + 1) % COLOURS.length;
+    			schedule(COLOUR_CHANGE, COLOUR_COOLDOWN_PERIOD);
+    		}
+    		break;
+    	}
+    }
+    
+    /**
+     * Sets one of the item's timers to go off after a number of ticks, replacing when it was going to go off.
+     * Does nothing if the item isn't in an arena.
+     * @param kind Which timer, eg PARTY_END.
+     * @param delay Ticks until it goes off.
+     */
+    protected void schedule(int kind, long delay) {
+    	if (timerWheel == null) {
+    		return;
+    	}
+    	if (timers[kind] == null) {
+    		timers[kind] = new TimerWheel.Timer(this, kind);
+    	}
+    	timerWheel.schedule(timers[kind], delay);
+    }
+    
+    /**
+     * Stops one of the item's timers from going off.
+     * @param kind Which timer, eg PARTY_END.
+     */
+    protected void cancelTimer(int kind) {
+    	if (timerWheel != null && timers[kind] != null) {
+    		timerWheel.cancel(timers[kind]);
+    	}
+    }
+    
+    /**
+     * Checks if one of the item's timers is waiting to go off.
+     * @param kind Which timer, eg COOLDOWN_END.
+     * @return If the timer is scheduled.
+     */
+    protected boolean isTimerScheduled(int kind) {
+    	return timers[kind] != null && timers[kind].isScheduled();
+    }
+    
+    /**
+     * Setter - Gives the item the timer wheel of the arena it has been added to, or null when removed,
+     * cancelling any timers left on the old wheel.
+     * @param wheel The arena's timer wheel.
+     */
+    void setTimerWheel(TimerWheel wheel) {
+    	for (int kind=0; kind<timers.length; kind++) {
+    		cancelTimer(kind);
+    	}
+    	timerWheel = wheel;
+    }
+    
+    /**
+     * Setter - Gives the item the walls of the arena it has been added to, or null when removed.
+     * @param _walls The arena's walls.
+     */
+    void setWalls(WallTree _walls) {
+    	walls = _walls;
+    }
+    
+    /**
+     * Checks if moving to a position would take the item into a wall. Moving away from a wall it is already
+     * touching is allowed, so an item that has grown or been dropped next to a wall doesn't get stuck.
+     * @param newX x position it wants to move to.
+     * @param newY y position it wants to move to.
+     * @param reach How close the item's edge is to its centre.
+     * @return If a wall is in the way.
+     */
+    protected boolean isBlockedByWall(double newX, double newY, double reach) {
+    	if (walls == null) {
+    		return false;
+    	}
+    	double after = walls.distanceTo(newX, newY, reach);
+    	return after < reach && after <= walls.distanceTo(x, y, reach);
+    }
+    
+    /**
+     * Checks if a line, such as a whisker or the path to a new position, crosses a wall.
+     * @param line Line being checked.
+     * @return If the line crosses a wall.
+     */
+    protected boolean crossesWall(Line line) {
+    	return walls != null && walls.anyCrossing(line);
+    }
+    
     /**
      * Compares its size to other object. If the object is bigger, return true. If other object is bigger, return false.
      * @param item2 Other object that it will be compared to in terms of size.
@@ -122,6 +231,93 @@ public abstract class ArenaItem {
     	}
     }
     
+    /**
+     * How far from its centre the item reaches when drawn.
+     * @return Half the width of the square the item is drawn in.
+     */
+    protected double getDrawExtent() {
+    	return radius;
+    }
+    
+    /**
+     * Checks if the item looks different every frame, even when it hasn't moved. Party colours are
+     * changed by timers and picked up by hasChangedSinceDrawn, so no item is currently animated.
+     * @return If the item always needs redrawing.
+     */
+    public boolean isAnimated() {
+    	return false;
+    }
+    
+    /**
+     * Checks if the item never moves by itself, so it can be drawn on the background layer.
+     * @return If the item is static.
+     */
+    public boolean isStatic() {
+    	return false;
+    }
+    
+    /**
+     * Checks if the item has moved, changed size or changed colour since it was last drawn.
+     * @return If the item needs redrawing.
+     */
+    public boolean hasChangedSinceDrawn() {
+    	return !isDrawn || x != drawnX || y != drawnY || getDrawExtent() != drawnExtent || getDrawColour() != drawnColour;
+    }
+    
+    /**
+     * Remembers where the item has just been drawn.
+     */
+    public void markDrawn() {
+    	isDrawn = true;
+    	drawnX = x;
+    	drawnY = y;
+    	drawnExtent = getDrawExtent();
+    	drawnColour = getDrawColour();
+    }
+    
+    /**
+     * Getter - Provides if the item has been drawn since it was added.
+     * @return If the item has been drawn.
+     */
+    public boolean isDrawn() {
+    	return isDrawn;
+    }
+    
+    /**
+     * Adds the area the item was last drawn in to the regions needing redrawing.
+     * @param regions Regions that need redrawing.
+     */
+    public void addDrawnRegion(DirtyRegions regions) {
+    	if (isDrawn) {
+    		regions.addAround(drawnX, drawnY, drawnExtent + 2); // extra pixels for anti-aliasing
+    	}
+    }
+    
+    /**
+     * Adds the area the item is currently in to the regions needing redrawing.
+     * @param regions Regions that need redrawing.
+     */
+    public void addCurrentRegion(DirtyRegions regions) {
+    	regions.addAround(x, y, getDrawExtent() + 2);
+    }
+    
+    /**
+     * Checks if the item is drawn inside any of the regions.
+     * @param regions Regions that need redrawing.
+     * @return If the item needs redrawing.
+     */
+    public boolean isInRegions(DirtyRegions regions) {
+    	double extent = getDrawExtent() + 2;
+    	return regions.intersects(x - extent, y - extent, x + extent, y + extent);
+    }
+    
+    /**
+     * Forgets that the item has been drawn, used when the canvas it was on has been cleared.
+     */
+    public void forgetDrawn() {
+    	isDrawn = false;
+    }
+    
     /**
      * Getter - Provides value for x coordinate
      * @return x coordinate.
@@ -146,6 +342,49 @@ public abstract class ArenaItem {
 		return objectID;
 	}
 	
+	/**
+	 * Setter - Sets the item's ID, given by the arena when the item is added to it.
+	 * @param _objectID ID unique within the arena.
+	 */
+	void setID(int _objectID) {
+		objectID = _objectID;
+		statusChanged(); // the ID is shown in the status
+	}
+	
+	/**
+	 * Getter - Provides where the item is in a kind of SlotList.
+	 * @param kind Kind of list, eg SlotList.ALL.
+	 * @return Index in the list, -1 if not in one.
+	 */
+	int getSlot(int kind) {
+		return slots[kind];
+	}
+	
+	/**
+	 * Setter - Sets where the item is in a kind of SlotList, only used by the list.
+	 * @param kind Kind of list, eg SlotList.ALL.
+	 * @param slot Index in the list, -1 if not in one.
+	 */
+	void setSlot(int kind, int slot) {
+		slots[kind] = slot;
+	}
+	
+	/**
+	 * Getter - Provides where the item is in its arena's neighbour lists.
+	 * @return Index in the lists, -1 if not in them.
+	 */
+	int getNeighbourIndex() {
+		return neighbourIndex;
+	}
+	
+	/**
+	 * Setter - Sets where the item is in its arena's neighbour lists, only used by the lists.
+	 * @param _neighbourIndex Index in the lists, -1 if not in them.
+	 */
+	void setNeighbourIndex(int _neighbourIndex) {
+		neighbourIndex = _neighbourIndex;
+	}
+	
     /**
      * Getter - Provides value for radius, only used for inherited classes.
      * @return item's radius.
@@ -176,6 +415,7 @@ public abstract class ArenaItem {
      */
 	public void setRadius(int _radius) {
 		radius = _radius;
+		statusChanged();
 	}
 	
 	/**
@@ -212,14 +452,43 @@ public abstract class ArenaItem {
 	public void setPosition(double _x, double _y) {
 		setX(_x);
 		setY(_y);
+		statusChanged();
 	}
 	
 	/**
-	 * Turns the party mode on/off, and resets the cooldown.
+	 * Turns the party mode on/off. Turning it on moves straight to the next colour and schedules
+	 * the colour changes and the end of party mode.
 	 */
 	public void setParty() {
 		isParty = !isParty;
-		partyCooldownLength = PARTY_LENGTH;
+		if (isParty) {
+			currentColourIndex = (currentColourIndex + 1) % COLOURS.length;
+			schedule(COLOUR_CHANGE, COLOUR_COOLDOWN_PERIOD);
+			schedule(PARTY_END, PARTY_LENGTH);
+		} else {
+			cancelTimer(COLOUR_CHANGE);
+			cancelTimer(PARTY_END);
+		}
+		statusChanged();
+	}
+	
+	/**
+	 * Marks the status string as out of date, called whenever something it shows changes.
+	 */
+	protected void statusChanged() {
+		status = null;
+	}
+	
+	/**
+	 * Getter - Provides the item's information for the right pane. The string is only rebuilt
+	 * when the item has changed since it was last asked for.
+	 * @return Item information in string form, same as toString.
+	 */
+	public String getStatus() {
+		if (status == null) {
+			status = toString();
+		}
+		return status;
 	}
 	
 	/**
@@ -7,6 +7,9 @@ package RobotProjectGUI;
  */
 public class Bullet extends Robot{
 	private boolean isDestroyed;
+	private int poolIndex = -1; // where the bullet is in the pool's array, -1 when not in flight
+	static final double DEFAULT_SPEED = 5; // pixels travelled each tick, on top of its radius
+	private double bulletSpeed = DEFAULT_SPEED;
 	
 	/**
 	 * Constructor for bullet, only one needed as position depends on where the controllable robot is.
@@ -21,6 +24,38 @@ public class Bullet extends Robot{
 		isDestroyed = false;
 	}
 	
+	/**
+	 * Gets a destroyed bullet ready to be fired again, used by the bullet pool.
+	 * @param x Bullet's x position.
+	 * @param y Bullet's y position.
+	 * @param robotAngle Direction the bullet travels.
+	 */
+	void reset(double x, double y, double robotAngle) {
+		setPosition(x, y);
+		setAngle(robotAngle);
+		if (getIsParty()) {
+			setParty(); // party mode off
+		}
+		isDestroyed = false;
+		forgetDrawn();
+	}
+	
+	/**
+	 * Getter - Provides where the bullet is in the pool's array.
+	 * @return Index in the pool, -1 when not in flight.
+	 */
+	int getPoolIndex() {
+		return poolIndex;
+	}
+	
+	/**
+	 * Setter - Sets where the bullet is in the pool's array, only used by the pool.
+	 * @param _poolIndex Index in the pool, -1 when not in flight.
+	 */
+	void setPoolIndex(int _poolIndex) {
+		poolIndex = _poolIndex;
+	}
+	
 	/**
 	 * Draws bullet on screen represented as a small circle.
 	 * @param mc Canvas needed to draw the bullet onto the canvas.
@@ -31,23 +66,18 @@ public class Bullet extends Robot{
 	}
 	
 	/**
-	 * Logic for handling how the bullet moves. Will keep moving the same direction until it's destroyed.
+	 * Logic for handling how the bullet moves. Will keep moving the same direction until it's destroyed, by hitting
+	 * an item, the edge of the arena or one of its walls.
 	 * @param mc Needed for when checking if the new position is within the arena's bounds.
 	 * @param isCollision Needed for checking if it is colliding with another item.
 	 */
 	@Override
 	public void updatePosition(MyCanvas mc, boolean isCollision) {
-		double bulletSpeed = 5;
-		// Calculate the bullet's position in front of the robot
-		double bulletX = getX() + bulletSpeed * Math.cos(Math.toRadians(getAngle()));
-		double bulletY = getY() + bulletSpeed * Math.sin(Math.toRadians(getAngle()));
-
-		// Adjust the bullet's position based on the robot's radius
-		bulletX += getRadius() * Math.cos(Math.toRadians(getAngle()));
-		bulletY += getRadius() * Math.sin(Math.toRadians(getAngle()));
+		double bulletX = getX() + getStepX();
+		double bulletY = getY() + getStepY();
         
         // whichDirection is left, !whichDirection is right
-        if (isValidPosition(bulletX, bulletY, mc) && !isCollision) {
+        if (isValidPosition(bulletX, bulletY, mc) && !isCollision && !crossesWall(new Line(getX(), getY(), bulletX, bulletY))) {
         	setPosition(bulletX, bulletY);
         }
         else {
@@ -55,6 +85,31 @@ public class Bullet extends Robot{
         }
 	}
 	
+	/**
+	 * Getter - Provides how far the bullet moves across in one tick, its speed plus its radius.
+	 * @return Change in x position each tick.
+	 */
+	public double getStepX() {
+		return (bulletSpeed + getRadius()) * Math.cos(Math.toRadians(getAngle()));
+	}
+	
+	/**
+	 * Getter - Provides how far the bullet moves down in one tick, its speed plus its radius.
+	 * @return Change in y position each tick.
+	 */
+	public double getStepY() {
+		return (bulletSpeed + getRadius()) * Math.sin(Math.toRadians(getAngle()));
+	}
+	
+	/**
+	 * Setter - Sets how many pixels the bullet travels each tick, on top of its radius. Hits are found along
+	 * the whole path, so fast bullets don't pass through small items.
+	 * @param _bulletSpeed The bullet's speed.
+	 */
+	public void setBulletSpeed(double _bulletSpeed) {
+		bulletSpeed = _bulletSpeed;
+	}
+	
 	/**
 	 * Getter to see if bullet is destroyed due to hitting a wall.
 	 * @return If the bullet has been destroyed.
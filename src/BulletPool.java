@@ -0,0 +1,101 @@
+package RobotProjectGUI;
+
+/**
+ *
+ * @author dijan
+ * Class that keeps the bullets in flight in one dense array, and keeps destroyed bullets on a free list to be
+ * fired again, so shooting doesn't create a new bullet each time. Removing a bullet swaps the last bullet into
+ * its place, so it doesn't need to search or shift the array.
+ */
+public class BulletPool {
+	private Bullet[] active = new Bullet[64]; // bullets in flight, the first activeCount are used
+	private int activeCount;
+	private Bullet[] free = new Bullet[64]; // destroyed bullets waiting to be fired again
+	private int freeCount;
+	private int created; // bullets ever created, rather than reused
+
+	/**
+	 * Fires a bullet, reusing a destroyed one if there is one.
+	 * @param x Bullet's x position.
+	 * @param y Bullet's y position.
+	 * @param angle Direction the bullet travels.
+	 * @return The bullet, now in flight.
+	 */
+	public Bullet obtain(double x, double y, double angle) {
+		Bullet bullet;
+		if (freeCount > 0) {
+			bullet = free[--freeCount];
+			free[freeCount] = null;
+			bullet.reset(x, y, angle);
+		} else {
+			bullet = new Bullet(x, y, angle, 'x');
+			created++;
+		}
+		if (activeCount == active.length) {
+			Bullet[] larger = new Bullet[active.length*2];
+			System.arraycopy(active, 0, larger, 0, activeCount);
+			active = larger;
+		}
+		bullet.setPoolIndex(activeCount);
+		active[activeCount++] = bullet;
+		return bullet;
+	}
+
+	/**
+	 * Takes a bullet out of flight and puts it on the free list.
+	 * @param bullet Bullet being removed.
+	 * @return If the bullet was in flight, false if it had already been released.
+	 */
+	public boolean release(Bullet bullet) {
+		int index = bullet.getPoolIndex();
+		if (index < 0 || index >= activeCount || active[index] != bullet) {
+			return false;
+		}
+		Bullet last = active[--activeCount]; // fill the gap with the last bullet
+		active[index] = last;
+		last.setPoolIndex(index);
+		active[activeCount] = null;
+		bullet.setPoolIndex(-1);
+		if (freeCount == free.length) {
+			Bullet[] larger = new Bullet[free.length*2];
+			System.arraycopy(free, 0, larger, 0, freeCount);
+			free = larger;
+		}
+		free[freeCount++] = bullet;
+		return true;
+	}
+
+	/**
+	 * Takes every bullet out of flight.
+	 */
+	public void clear() {
+		while (activeCount > 0) {
+			release(active[activeCount - 1]);
+		}
+	}
+
+	/**
+	 * Getter - Provides a bullet in flight. Releasing a bullet moves the last one into its place.
+	 * @param index Index of the bullet, from 0 to size()-1.
+	 * @return The bullet.
+	 */
+	public Bullet get(int index) {
+		return active[index];
+	}
+
+	/**
+	 * Getter - Provides the number of bullets in flight.
+	 * @return Number of bullets.
+	 */
+	public int size() {
+		return activeCount;
+	}
+
+	/**
+	 * Getter - Provides how many bullets have been created rather than reused.
+	 * @return Number of bullets created.
+	 */
+	public int getCreated() {
+		return created;
+	}
+}
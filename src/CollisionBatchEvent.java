@@ -0,0 +1,23 @@
+package RobotProjectGUI;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *
+ * @author dijan
+ * Flight recorder event covering every collision check made during one tick.
+ */
+@Name("RobotProjectGUI.CollisionBatch")
+@Label("Collision Batch")
+@Category("Robot Simulation")
+@Description("Collision checks made during one tick")
+public class CollisionBatchEvent extends jdk.jfr.Event {
+	@Label("Pairs Tested")
+	int pairsTested;
+
+	@Label("Hits")
+	int hits;
+}
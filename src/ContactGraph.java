@@ -0,0 +1,160 @@
+package RobotProjectGUI;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *
+ * @author dijan
+ * Class that groups the items touching each other in a tick into connected groups, using union-find: each item
+ * points towards another item in its group, and following the pointers leads to the one item standing for the
+ * whole group. Joining two groups points one at the other, so finding every group takes one pass over the
+ * touching pairs whatever order they are found in. Items are numbered by where they are in the arena. It also
+ * remembers, for each item, the items close enough that they could collide during the tick, in arena order, so
+ * collision checks during the tick only look at those.
+ */
+public class ContactGraph {
+	private int[] parent = new int[0]; // item each item points towards, itself if it stands for its group
+	private int[] size = new int[0]; // number of items in each group, kept for the item standing for it
+	private boolean[] party = new boolean[0]; // if each group has something in party mode, kept for the item standing for it
+	private int count;
+	private int[] pairA = new int[64], pairB = new int[64]; // pairs of items close by, as found
+	private int pairCount;
+	private int[] start = new int[1]; // where each item's close items start in near, one extra at the end
+	private ArenaItem[] near = new ArenaItem[0]; // close items of each item in turn, in arena order
+
+	/**
+	 * Starts again with every item in a group of its own.
+	 * @param _count Number of items.
+	 */
+	public void reset(int _count) {
+		count = _count;
+		if (parent.length < count) {
+			int length = Math.max(count, parent.length*2);
+			parent = new int[length];
+			size = new int[length];
+			party = new boolean[length];
+			start = new int[length + 1];
+		}
+		for (int i=0; i<count; i++) {
+			parent[i] = i;
+			size[i] = 1;
+			party[i] = false;
+		}
+		pairCount = 0;
+	}
+
+	/**
+	 * Finds the item standing for an item's group, pointing items along the way further along to keep paths short.
+	 * @param item Item's number.
+	 * @return Number of the item standing for its group.
+	 */
+	public int find(int item) {
+		while (parent[item] != item) {
+			parent[item] = parent[parent[item]];
+			item = parent[item];
+		}
+		return item;
+	}
+
+	/**
+	 * Joins the groups of two touching items, the smaller group is pointed at the larger.
+	 * @param a First item's number.
+	 * @param b Second item's number.
+	 */
+	public void union(int a, int b) {
+		a = find(a);
+		b = find(b);
+		if (a == b) {
+			return;
+		}
+		if (size[a] < size[b]) {
+			int swap = a;
+			a = b;
+			b = swap;
+		}
+		parent[b] = a;
+		size[a] += size[b];
+		party[a] |= party[b];
+	}
+
+	/**
+	 * Marks an item's group as having something in party mode, so everything in it catches it.
+	 * @param item Item's number.
+	 */
+	public void markParty(int item) {
+		party[find(item)] = true;
+	}
+
+	/**
+	 * Checks if anything in an item's group is in party mode.
+	 * @param item Item's number.
+	 * @return If the group has party mode.
+	 */
+	public boolean hasParty(int item) {
+		return party[find(item)];
+	}
+
+	/**
+	 * Remembers that two items are close enough that they could collide this tick.
+	 * @param a First item's number.
+	 * @param b Second item's number.
+	 */
+	public void addNear(int a, int b) {
+		if (pairCount == pairA.length) {
+			pairA = Arrays.copyOf(pairA, pairCount*2);
+			pairB = Arrays.copyOf(pairB, pairCount*2);
+		}
+		pairA[pairCount] = a;
+		pairB[pairCount] = b;
+		pairCount++;
+	}
+
+	/**
+	 * Sorts the close pairs into a list for each item, in arena order, once every pair has been added.
+	 * @param items Every item in the arena, in order.
+	 */
+	public void finishNear(List<? extends ArenaItem> items) {
+		Arrays.fill(start, 0, count + 1, 0);
+		for (int i=0; i<pairCount; i++) { // count each item's close items
+			start[pairA[i] + 1]++;
+			start[pairB[i] + 1]++;
+		}
+		for (int i=0; i<count; i++) { // turn counts into start positions
+			start[i+1] += start[i];
+		}
+		if (near.length < start[count]) {
+			near = new ArenaItem[Math.max(start[count], near.length*2)];
+		}
+		int[] next = Arrays.copyOf(start, count);
+		for (int i=0; i<pairCount; i++) {
+			near[next[pairA[i]]++] = items.get(pairB[i]);
+			near[next[pairB[i]]++] = items.get(pairA[i]);
+		}
+		for (int item=0; item<count; item++) { // lists are short, so sorted by insertion
+			for (int i=start[item]+1; i<start[item+1]; i++) {
+				ArenaItem moving = near[i];
+				int j = i - 1;
+				while (j >= start[item] && near[j].getSlot(SlotList.ALL) > moving.getSlot(SlotList.ALL)) {
+					near[j+1] = near[j];
+					j--;
+				}
+				near[j+1] = moving;
+			}
+		}
+	}
+
+	/**
+	 * Finds the items that were close enough to an item to collide with it this tick, in arena order.
+	 * @param item Item's number.
+	 * @param out List the items are added to.
+	 */
+	public void candidates(int item, List<ArenaItem> out) {
+		if (item < 0 || item >= count) {
+			return;
+		}
+		for (int i=start[item]; i<start[item+1]; i++) {
+			out.add(near[i]);
+		}
+	}
+}
@@ -34,9 +34,6 @@ public class ControllableRobot extends Robot{
 	public void drawObject(MyCanvas mc){
 		char robotColour = getIsParty() ? partyMode() : 'r';
 		mc.showRobot(getX(), getY(), getHeight(), getWidth(), getRadius(), getAngle(), robotColour);
-		if (getIsParty()) {
-			setSpeed(2); // adjust speed, needs to be fixed
-		}
 	}	
 	
     /**
@@ -0,0 +1,121 @@
+package RobotProjectGUI;
+
+/**
+ *
+ * @author dijan
+ * Class that collects the rectangles of the canvas that need redrawing, such as where an item
+ * used to be before it moved and where it is now.
+ */
+public class DirtyRegions {
+	private double[] rects; // minX, minY, maxX, maxY for each region
+	private int count;
+
+	/**
+	 * Default constructor, starts with no regions.
+	 */
+	DirtyRegions(){
+		rects = new double[64*4];
+	}
+
+	/**
+	 * Adds a rectangle that needs redrawing.
+	 * @param minX Left edge.
+	 * @param minY Top edge.
+	 * @param maxX Right edge.
+	 * @param maxY Bottom edge.
+	 */
+	public void add(double minX, double minY, double maxX, double maxY) {
+		if (count*4 + 4 > rects.length) {
+			double[] larger = new double[rects.length*2];
+			System.arraycopy(rects, 0, larger, 0, rects.length);
+			rects = larger;
+		}
+		rects[count*4] = minX;
+		rects[count*4+1] = minY;
+		rects[count*4+2] = maxX;
+		rects[count*4+3] = maxY;
+		count++;
+	}
+
+	/**
+	 * Adds every region from another set of regions.
+	 * @param other Regions being added.
+	 */
+	public void addAll(DirtyRegions other) {
+		for (int i=0; i<other.size(); i++) {
+			add(other.get(i, 0), other.get(i, 1), other.get(i, 2), other.get(i, 3));
+		}
+	}
+
+	/**
+	 * Adds a square around a point that needs redrawing.
+	 * @param x Centre x position.
+	 * @param y Centre y position.
+	 * @param extent Half the width of the square.
+	 */
+	public void addAround(double x, double y, double extent) {
+		add(x - extent, y - extent, x + extent, y + extent);
+	}
+
+	/**
+	 * Checks if a rectangle overlaps any of the regions.
+	 * @param minX Left edge.
+	 * @param minY Top edge.
+	 * @param maxX Right edge.
+	 * @param maxY Bottom edge.
+	 * @return If the rectangle needs redrawing.
+	 */
+	public boolean intersects(double minX, double minY, double maxX, double maxY) {
+		for (int i=0; i<count*4; i+=4) {
+			if (minX < rects[i+2] && maxX > rects[i] && minY < rects[i+3] && maxY > rects[i+1]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds up the area of every region, overlaps are counted more than once.
+	 * @return Total area of the regions.
+	 */
+	public double area() {
+		double total = 0;
+		for (int i=0; i<count*4; i+=4) {
+			total += (rects[i+2] - rects[i]) * (rects[i+3] - rects[i+1]);
+		}
+		return total;
+	}
+
+	/**
+	 * Getter - Provides the number of regions.
+	 * @return Number of regions.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Getter - Provides one edge of a region.
+	 * @param region Which region.
+	 * @param edge 0 to 3 for minX, minY, maxX, maxY.
+	 * @return Position of the edge.
+	 */
+	public double get(int region, int edge) {
+		return rects[region*4 + edge];
+	}
+
+	/**
+	 * Checks if there is anything to redraw.
+	 * @return If there are no regions.
+	 */
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Removes every region.
+	 */
+	public void clear() {
+		count = 0;
+	}
+}
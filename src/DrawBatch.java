@@ -0,0 +1,168 @@
+package RobotProjectGUI;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ *
+ * @author dijan
+ * Class that queues up draw calls for a frame, grouped by colour and by shape, so that each
+ * colour is only set once per shape when the batch is flushed onto the canvas.
+ */
+public class DrawBatch {
+	static final String COLOUR_CHARS = "ywrgbox"; // every colour MyCanvas knows about, 'x' (black) used for unknown chars
+	private static final int INITIAL_SIZE = 64; // starting length of each queue, grows as needed
+
+	private double[][] circles; // x, y, radius for each queued circle, one queue per colour
+	private int[] circleCount;
+	private double[][] quads; // four corners (x1,y1 .. x4,y4) for each queued quad, one queue per colour
+	private int[] quadCount;
+	private double[] lines; // x1, y1, x2, y2 for each queued line, always drawn in black
+	private int lineCount;
+
+	/**
+	 * Default constructor, sets up an empty queue for every colour.
+	 */
+	DrawBatch(){
+		int colours = COLOUR_CHARS.length();
+		circles = new double[colours][INITIAL_SIZE*3];
+		circleCount = new int[colours];
+		quads = new double[colours][INITIAL_SIZE*8];
+		quadCount = new int[colours];
+		lines = new double[INITIAL_SIZE*4];
+	}
+
+	/**
+	 * Finds which queue a colour belongs to.
+	 * @param col Colour character used by MyCanvas.
+	 * @return Index of the colour, black if the colour is not known.
+	 */
+	static int colourIndex(char col) {
+		int index = COLOUR_CHARS.indexOf(col);
+		return index >= 0 ? index : COLOUR_CHARS.indexOf('x');
+	}
+
+	/**
+	 * Queues a filled circle.
+	 * @param col Circle's colour.
+	 * @param x Circle's x position.
+	 * @param y Circle's y position.
+	 * @param rad Circle's radius.
+	 */
+	public void addCircle(char col, double x, double y, double rad) {
+		int c = colourIndex(col);
+		int n = circleCount[c]*3;
+		if (n + 3 > circles[c].length) {
+			circles[c] = grow(circles[c]);
+		}
+		circles[c][n] = x;
+		circles[c][n+1] = y;
+		circles[c][n+2] = rad;
+		circleCount[c]++;
+	}
+
+	/**
+	 * Queues a filled four sided shape, corners given in drawing order.
+	 * @param col Shape's colour.
+	 * @param corners x1, y1, x2, y2, x3, y3, x4, y4 of the shape.
+	 */
+	public void addQuad(char col, double[] corners) {
+		int c = colourIndex(col);
+		int n = quadCount[c]*8;
+		if (n + 8 > quads[c].length) {
+			quads[c] = grow(quads[c]);
+		}
+		System.arraycopy(corners, 0, quads[c], n, 8);
+		quadCount[c]++;
+	}
+
+	/**
+	 * Queues a black line.
+	 * @param x1 Start x position.
+	 * @param y1 Start y position.
+	 * @param x2 End x position.
+	 * @param y2 End y position.
+	 */
+	public void addLine(double x1, double y1, double x2, double y2) {
+		int n = lineCount*4;
+		if (n + 4 > lines.length) {
+			lines = grow(lines);
+		}
+		lines[n] = x1;
+		lines[n+1] = y1;
+		lines[n+2] = x2;
+		lines[n+3] = y2;
+		lineCount++;
+	}
+
+	/**
+	 * Checks if anything has been queued since the last flush.
+	 * @return If the batch is empty.
+	 */
+	public boolean isEmpty() {
+		for (int c=0; c<circleCount.length; c++) {
+			if (circleCount[c] > 0 || quadCount[c] > 0) {
+				return false;
+			}
+		}
+		return lineCount == 0;
+	}
+
+	/**
+	 * Draws everything queued onto the graphics context and empties the batch. Circles are drawn first,
+	 * then quads (wheels) on top of them, then lines. Each colour is set once and filled as a single path.
+	 * @param gc Graphics context being drawn onto.
+	 * @param mc Canvas used to convert colour characters into colours.
+	 */
+	public void flush(GraphicsContext gc, MyCanvas mc) {
+		for (int c=0; c<circleCount.length; c++) {
+			if (circleCount[c] == 0) continue;
+			gc.setFill(mc.colFromChar(COLOUR_CHARS.charAt(c)));
+			gc.beginPath();
+			double[] q = circles[c];
+			for (int i=0; i<circleCount[c]*3; i+=3) {
+				gc.moveTo(q[i] + q[i+2], q[i+1]); // start of arc, otherwise circles get joined together
+				gc.arc(q[i], q[i+1], q[i+2], q[i+2], 0, 360);
+				gc.closePath();
+			}
+			gc.fill();
+			circleCount[c] = 0;
+		}
+		for (int c=0; c<quadCount.length; c++) {
+			if (quadCount[c] == 0) continue;
+			gc.setFill(mc.colFromChar(COLOUR_CHARS.charAt(c)));
+			gc.beginPath();
+			double[] q = quads[c];
+			for (int i=0; i<quadCount[c]*8; i+=8) {
+				gc.moveTo(q[i], q[i+1]);
+				gc.lineTo(q[i+2], q[i+3]);
+				gc.lineTo(q[i+4], q[i+5]);
+				gc.lineTo(q[i+6], q[i+7]);
+				gc.closePath();
+			}
+			gc.fill();
+			quadCount[c] = 0;
+		}
+		if (lineCount > 0) {
+			gc.setStroke(Color.BLACK);
+			gc.beginPath();
+			for (int i=0; i<lineCount*4; i+=4) {
+				gc.moveTo(lines[i], lines[i+1]);
+				gc.lineTo(lines[i+2], lines[i+3]);
+			}
+			gc.stroke();
+			lineCount = 0;
+		}
+	}
+
+	/**
+	 * Doubles the length of a queue, keeping what is already in it.
+	 * @param queue Queue that is full.
+	 * @return Larger copy of the queue.
+	 */
+	private static double[] grow(double[] queue) {
+		double[] larger = new double[queue.length*2];
+		System.arraycopy(queue, 0, larger, 0, queue.length);
+		return larger;
+	}
+}
@@ -0,0 +1,158 @@
+package RobotProjectGUI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ *
+ * @author dijan
+ * Class that works out all the eating in a tick at once, rather than one collision at a time. Every touching
+ * pair with a hungry robot in it is added as a meal, with the larger hungry robot as the eater. Meals are then
+ * gone through largest eater first, so each item is eaten by exactly one robot, and a robot that is itself eaten
+ * eats nothing. The result doesn't depend on the order the robots are in, and each eater can then grow once by
+ * however many meals it had.
+ */
+public class EatBatch {
+	private static final Comparator<Meal> LARGEST_FIRST = Comparator.<Meal>comparingInt(meal -> -meal.eater.getRadius())
+			.thenComparingInt(meal -> meal.eater.getID()).thenComparingInt(meal -> meal.victim.getID()); // older robots win ties
+	private Meal[] meals = new Meal[0]; // reused each tick, only the first mealCount are this tick's
+	private int mealCount;
+	private boolean[] eaten = new boolean[0]; // if each item has been eaten, by where it is in the arena
+	private int[] mealsEaten = new int[0]; // meals each eater has had, by where it is in the arena
+	private ArrayList<HungryRobot> eaters = new ArrayList<>(); // robots that ate this tick, largest first
+	private ArrayList<Meal> eatenMeals = new ArrayList<>(); // meals that went ahead, largest eater first
+
+	/**
+	 *
+	 * @author dijan
+	 * Class that represents one item touching a hungry robot that could eat it.
+	 */
+	static class Meal {
+		private HungryRobot eater;
+		private ArenaItem victim;
+
+		/**
+		 * Getter - Provides the robot eating.
+		 * @return The eater.
+		 */
+		public HungryRobot getEater() {
+			return eater;
+		}
+
+		/**
+		 * Getter - Provides the item being eaten.
+		 * @return The victim.
+		 */
+		public ArenaItem getVictim() {
+			return victim;
+		}
+	}
+
+	/**
+	 * Empties the batch, ready for the next tick.
+	 */
+	public void clear() {
+		for (int i=0; i<mealCount; i++) {
+			meals[i].eater = null; // don't hold on to items that have been removed
+			meals[i].victim = null;
+		}
+		mealCount = 0;
+		eaters.clear();
+		eatenMeals.clear();
+	}
+
+	/**
+	 * Adds two touching items as a meal if either is hungry. If both are, the larger eats the smaller, or the
+	 * older if they are the same size.
+	 * @param item1 First item.
+	 * @param item2 Second item.
+	 */
+	public void add(ArenaItem item1, ArenaItem item2) {
+		HungryRobot eater;
+		ArenaItem victim;
+		if (item1 instanceof HungryRobot && item2 instanceof HungryRobot) {
+			boolean firstEats = item1.getRadius() != item2.getRadius() ? item1.getRadius() > item2.getRadius() : item1.getID() < item2.getID();
+			eater = (HungryRobot) (firstEats ? item1 : item2);
+			victim = firstEats ? item2 : item1;
+		} else if (item1 instanceof HungryRobot) {
+			eater = (HungryRobot) item1;
+			victim = item2;
+		} else if (item2 instanceof HungryRobot) {
+			eater = (HungryRobot) item2;
+			victim = item1;
+		} else {
+			return; // nobody is hungry
+		}
+		if (mealCount == meals.length) {
+			meals = Arrays.copyOf(meals, Math.max(16, meals.length*2));
+			for (int i=mealCount; i<meals.length; i++) {
+				meals[i] = new Meal();
+			}
+		}
+		meals[mealCount].eater = eater;
+		meals[mealCount].victim = victim;
+		mealCount++;
+	}
+
+	/**
+	 * Decides which meals go ahead, largest eater first. A meal is skipped if its victim has already been eaten,
+	 * or its eater has been eaten by a larger robot.
+	 * @param itemCount Number of items in the arena, as items are looked up by where they are in it.
+	 */
+	public void resolve(int itemCount) {
+		if (eaten.length < itemCount) {
+			eaten = new boolean[Math.max(itemCount, eaten.length*2)];
+			mealsEaten = new int[eaten.length];
+		}
+		Arrays.fill(eaten, 0, itemCount, false);
+		Arrays.fill(mealsEaten, 0, itemCount, 0);
+		Arrays.sort(meals, 0, mealCount, LARGEST_FIRST);
+		for (int i=0; i<mealCount; i++) {
+			Meal meal = meals[i];
+			int eaterSlot = meal.eater.getSlot(SlotList.ALL);
+			int victimSlot = meal.victim.getSlot(SlotList.ALL);
+			if (eaten[eaterSlot] || eaten[victimSlot]) {
+				continue;
+			}
+			eaten[victimSlot] = true;
+			if (mealsEaten[eaterSlot]++ == 0) {
+				eaters.add(meal.eater);
+			}
+			eatenMeals.add(meal);
+		}
+	}
+
+	/**
+	 * Getter - Provides the robots that ate, largest first, after resolve.
+	 * @return Robots that ate this tick.
+	 */
+	public ArrayList<HungryRobot> getEaters() {
+		return eaters;
+	}
+
+	/**
+	 * Getter - Provides how many items a robot ate, after resolve and before any items are removed from the arena.
+	 * @param eater Robot that ate.
+	 * @return Number of items it ate.
+	 */
+	public int getMealsEaten(HungryRobot eater) {
+		return mealsEaten[eater.getSlot(SlotList.ALL)];
+	}
+
+	/**
+	 * Getter - Provides the meals that went ahead, after resolve.
+	 * @return Meals eaten this tick, each victim once.
+	 */
+	public ArrayList<Meal> getEatenMeals() {
+		return eatenMeals;
+	}
+
+	/**
+	 * Getter - Provides how many meals were added this tick, including ones that didn't go ahead.
+	 * @return Number of meals added.
+	 */
+	public int size() {
+		return mealCount;
+	}
+}
@@ -0,0 +1,26 @@
+package RobotProjectGUI;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *
+ * @author dijan
+ * Flight recorder event for a hungry robot eating another item, from RobotArena.resolveEating.
+ */
+@Name("RobotProjectGUI.Eat")
+@Label("Eat")
+@Category("Robot Simulation")
+@Description("A hungry robot eating another item")
+public class EatEvent extends jdk.jfr.Event {
+	@Label("Eater ID")
+	int eaterID;
+
+	@Label("Eaten Type")
+	String eatenType;
+
+	@Label("Eater Radius")
+	int eaterRadius;
+}
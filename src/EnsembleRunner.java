@@ -0,0 +1,153 @@
+package RobotProjectGUI;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ *
+ * @author dijan
+ * Class that runs many independent seeded arenas in parallel to see how hungry robots do, such as how large
+ * they grow and how long until only one robot is left. Each run's results are added to histograms as soon as it
+ * finishes, so memory doesn't grow with the number of runs. Runs are shared between threads by a work stealing pool.
+ *
+ * Usage: EnsembleRunner [--runs N] [--robots N,N,...] [--hungry N] [--obstacles N] [--size N] [--ticks N] [--seed N] [--threads N] [--neighbours]
+ * Each robot count given is a separate ensemble, so densities can be compared.
+ */
+public class EnsembleRunner {
+	private int runs = 1000;
+	private int robots = 40, hungryRobots = 1, obstacles = 0;
+	private int size = 512; // width and height of each arena
+	private long maxTicks = 20000; // runs stop here if more than one robot is left
+	private long seed = 0; // run i uses seed + i
+	private int collisionMode = RobotArena.COLLIDE_ALL;
+	private Histogram finalRadius = new Histogram(5, 40); // largest hungry robot at the end of each run
+	private Histogram survivors = new Histogram(1, 200); // robots left at the end of each run
+	private Histogram ticksToOne = Histogram.exponential(40); // ticks until one robot was left, for runs that got there
+	private AtomicInteger unfinished = new AtomicInteger(); // runs that still had more than one robot at maxTicks
+
+	/**
+	 * Runs every arena, waiting until they have all finished.
+	 * @param pool Pool the runs are shared out on.
+	 */
+	public void run(ForkJoinPool pool) {
+		for (int i=0; i<runs; i++) {
+			long runSeed = seed + i;
+			pool.execute(() -> runOnce(runSeed));
+		}
+		pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.DAYS);
+	}
+
+	/**
+	 * Runs one arena until one robot is left or maxTicks is reached, then adds its results to the histograms.
+	 * @param runSeed Seed of the arena.
+	 */
+	private void runOnce(long runSeed) {
+		MyCanvas mc = new MyCanvas((GraphicsContext) null, size, size); // only used for its size, nothing is drawn
+		RobotArena arena = new RobotArena(runSeed);
+		arena.setCollisionMode(collisionMode);
+		for (int i=0; i<obstacles; i++) {
+			arena.addObject(new Obstacle(mc, arena));
+		}
+		for (int i=0; i<hungryRobots; i++) {
+			arena.addObject(new HungryRobot(mc, arena, 'g'));
+		}
+		for (int i=0; i<robots; i++) {
+			arena.addObject(new Robot(mc, arena, 'r'));
+		}
+		long tick = 0;
+		int left = countRobots(arena);
+		while (left > 1 && tick < maxTicks) {
+			arena.updateSystem(mc);
+			tick++;
+			left = countRobots(arena);
+		}
+		int largest = 0;
+		List<HungryRobot> hungry = arena.getRegistry().getHungryRobots();
+		for (int i=0; i<hungry.size(); i++) {
+			largest = Math.max(largest, hungry.get(i).getRadius());
+		}
+		finalRadius.record(largest);
+		survivors.record(left);
+		if (left <= 1) {
+			ticksToOne.record(tick);
+		} else {
+			unfinished.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Counts the robots in an arena, including hungry robots.
+	 * @param arena Arena being counted.
+	 * @return Number of robots.
+	 */
+	private static int countRobots(RobotArena arena) {
+		return arena.getRegistry().getRobots().size();
+	}
+
+	/**
+	 * Describes the results of every run.
+	 */
+	public String toString() {
+		return String.format(Locale.ROOT, "%d runs, %d robots, %d hungry, %d obstacles, %dx%d arena, up to %d ticks%n",
+				runs, robots, hungryRobots, obstacles, size, size, maxTicks)
+				+ "final hungry robot radius: " + finalRadius
+				+ "robots left: " + survivors
+				+ "ticks until one robot left (" + unfinished.get() + " runs never got there): " + ticksToOne;
+	}
+
+	/**
+	 * Runs an ensemble for each robot count given on the command line.
+	 * @param args Options, see the class description.
+	 */
+	public static void main(String[] args) {
+		EnsembleRunner settings = new EnsembleRunner();
+		String[] robotCounts = {Integer.toString(settings.robots)};
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i=0; i<args.length; i++) {
+			switch (args[i]) {
+			case "--runs":		settings.runs = Integer.parseInt(args[++i]);
+								break;
+			case "--robots":	robotCounts = args[++i].split(",");
+								break;
+			case "--hungry":	settings.hungryRobots = Integer.parseInt(args[++i]);
+								break;
+			case "--obstacles":	settings.obstacles = Integer.parseInt(args[++i]);
+								break;
+			case "--size":		settings.size = Integer.parseInt(args[++i]);
+								break;
+			case "--ticks":		settings.maxTicks = Long.parseLong(args[++i]);
+								break;
+			case "--seed":		settings.seed = Long.parseLong(args[++i]);
+								break;
+			case "--threads":	threads = Integer.parseInt(args[++i]);
+								break;
+			case "--neighbours":	settings.collisionMode = RobotArena.COLLIDE_NEIGHBOURS;
+								break;
+			default:			System.out.println("Unknown option " + args[i]);
+								return;
+			}
+		}
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		for (int i=0; i<robotCounts.length; i++) {
+			EnsembleRunner ensemble = new EnsembleRunner();
+			ensemble.runs = settings.runs;
+			ensemble.robots = Integer.parseInt(robotCounts[i].trim());
+			ensemble.hungryRobots = settings.hungryRobots;
+			ensemble.obstacles = settings.obstacles;
+			ensemble.size = settings.size;
+			ensemble.maxTicks = settings.maxTicks;
+			ensemble.seed = settings.seed;
+			ensemble.collisionMode = settings.collisionMode;
+			long start = System.nanoTime();
+			ensemble.run(pool);
+			System.out.println(ensemble);
+			System.out.printf(Locale.ROOT, "took %.2fs%n%n", (System.nanoTime() - start) / 1e9);
+		}
+		pool.shutdown();
+	}
+}
@@ -0,0 +1,159 @@
+package RobotProjectGUI;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.DoubleConsumer;
+
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+
+/**
+ *
+ * @author dijan
+ * Class that lets the user pick files with the JavaFX file chooser and reads/writes them as UTF-8 text on a
+ * background thread, so the GUI keeps animating while a file is saved or loaded. Reads and writes return
+ * futures that complete once the file is done, and report how far through the file they are as they go.
+ */
+public class FileService {
+	static final int CHUNK_SIZE = 64 * 1024; // bytes read or written at a time, progress is reported after each
+	private FileChooser chooser;
+	private String extension; // extension of files that are opened/created, eg txt
+	private ExecutorService io; // thread that reads and writes files, one at a time in the order asked
+
+	/**
+	 * Constructor for a file service looking for files with one extension.
+	 * @param description Description of the files, eg Text files.
+	 * @param _extension Extension of the files, eg txt.
+	 */
+	FileService(String description, String _extension){
+		extension = _extension;
+		chooser = new FileChooser();
+		chooser.setInitialDirectory(new File(System.getProperty("user.dir"))); // start in the current folder
+		chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(description, "*." + extension));
+		io = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "file-service");
+			t.setDaemon(true); // don't keep the program open once the window closes
+			return t;
+		});
+	}
+
+	/**
+	 * Asks the user for a file to open. Must be called on the JavaFX thread.
+	 * @param owner Window the dialog belongs to.
+	 * @return File chosen, null if the user cancelled.
+	 */
+	public File chooseOpenFile(Window owner) {
+		File file = chooser.showOpenDialog(owner);
+		if (file != null) {
+			chooser.setInitialDirectory(file.getParentFile()); // next dialog starts in the same folder
+		}
+		return file;
+	}
+
+	/**
+	 * Asks the user for a file to save to, adding the extension if it is missing. Must be called on the JavaFX thread.
+	 * @param owner Window the dialog belongs to.
+	 * @return File chosen, null if the user cancelled.
+	 */
+	public File chooseSaveFile(Window owner) {
+		File file = chooser.showSaveDialog(owner);
+		if (file == null) {
+			return null;
+		}
+		chooser.setInitialDirectory(file.getParentFile());
+		if (!file.getName().endsWith("." + extension)) {
+			file = new File(file.getPath() + "." + extension);
+		}
+		return file;
+	}
+
+	/**
+	 * Reads a whole file as UTF-8 text on the background thread.
+	 * @param file File being read.
+	 * @param progress Told the fraction of the file read so far, called on the background thread. Can be null.
+	 * @return Future completing with the file's text, or with the error if it can't be read.
+	 */
+	public CompletableFuture<String> readAsync(File file, DoubleConsumer progress) {
+		return CompletableFuture.supplyAsync(() -> {
+			SaveLoadEvent event = new SaveLoadEvent(); // flight recorder event, costs nothing if not recording
+			event.begin();
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				long size = channel.size();
+				ByteBuffer bytes = ByteBuffer.allocate((int) size);
+				while (bytes.hasRemaining()) {
+					int chunk = Math.min(CHUNK_SIZE, bytes.remaining());
+					bytes.limit(bytes.position() + chunk);
+					if (channel.read(bytes) < 0) {
+						break; // file got shorter while reading
+					}
+					bytes.limit(bytes.capacity());
+					report(progress, bytes.position(), size);
+				}
+				bytes.flip();
+				String text = StandardCharsets.UTF_8.decode(bytes).toString();
+				event.end();
+				if (event.shouldCommit()) {
+					event.operation = "load";
+					event.file = file.getPath();
+					event.characters = text.length();
+					event.commit();
+				}
+				return text;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, io);
+	}
+
+	/**
+	 * Writes text to a file as UTF-8 on the background thread, replacing what was in it.
+	 * @param file File being written.
+	 * @param text Text being written.
+	 * @param progress Told the fraction of the file written so far, called on the background thread. Can be null.
+	 * @return Future completing once the file is written, or with the error if it can't be.
+	 */
+	public CompletableFuture<Void> writeAsync(File file, String text, DoubleConsumer progress) {
+		return CompletableFuture.runAsync(() -> {
+			SaveLoadEvent event = new SaveLoadEvent();
+			event.begin();
+			ByteBuffer bytes = StandardCharsets.UTF_8.encode(text);
+			long size = bytes.remaining();
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+					StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				while (bytes.hasRemaining()) {
+					int end = bytes.limit();
+					bytes.limit(Math.min(end, bytes.position() + CHUNK_SIZE));
+					channel.write(bytes);
+					bytes.limit(end);
+					report(progress, size - bytes.remaining(), size);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			event.end();
+			if (event.shouldCommit()) {
+				event.operation = "save";
+				event.file = file.getPath();
+				event.characters = text.length();
+				event.commit();
+			}
+		}, io);
+	}
+
+	/**
+	 * Tells the progress callback how far through the file it is.
+	 */
+	private static void report(DoubleConsumer progress, long done, long size) {
+		if (progress != null) {
+			progress.accept(size == 0 ? 1 : (double) done / size);
+		}
+	}
+}
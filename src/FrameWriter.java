@@ -0,0 +1,173 @@
+package RobotProjectGUI;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+/**
+ *
+ * @author dijan
+ * Class that writes frames rendered by a RasterCanvas to disk on background threads, so the
+ * simulation doesn't wait for each file to be encoded. Frames are copied into a fixed number of
+ * buffers, and if every buffer is still waiting to be written, the next frame waits for one to free up.
+ * Frames are written as frame_000000.png, frame_000001.png, ... or as .raw files of big endian ARGB ints.
+ */
+public class FrameWriter {
+	static final int DEFAULT_BUFFERS = 8; // frames that can be waiting to be written at once
+	private File folder;
+	private boolean png; // PNG files if true, raw ARGB files if false
+	private int width, height;
+	private ExecutorService encoders;
+	private ArrayBlockingQueue<BufferedImage> freeFrames; // buffers not waiting to be written
+	private int frameNumber = 0;
+	private AtomicInteger framesWritten = new AtomicInteger(); // counted by every encoder thread
+
+	/**
+	 * Constructor for a writer with one encoder thread.
+	 * @param _folder Folder the frames are written into, created if needed.
+	 * @param _png If frames are written as PNG rather than raw.
+	 * @param _width Width of each frame.
+	 * @param _height Height of each frame.
+	 */
+	FrameWriter(File _folder, boolean _png, int _width, int _height){
+		this(_folder, _png, _width, _height, 1, DEFAULT_BUFFERS);
+	}
+
+	/**
+	 * Constructor for a writer.
+	 * @param _folder Folder the frames are written into, created if needed.
+	 * @param _png If frames are written as PNG rather than raw.
+	 * @param _width Width of each frame.
+	 * @param _height Height of each frame.
+	 * @param threads Number of encoder threads, PNG encoding is the slow part so more threads write more frames.
+	 * @param buffers Number of frames that can be waiting to be written.
+	 */
+	FrameWriter(File _folder, boolean _png, int _width, int _height, int threads, int buffers){
+		folder = _folder;
+		png = _png;
+		width = _width;
+		height = _height;
+		folder.mkdirs();
+		freeFrames = new ArrayBlockingQueue<>(buffers);
+		for (int i=0; i<buffers; i++) {
+			freeFrames.add(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB));
+		}
+		encoders = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "frame-writer");
+			t.setDaemon(true); // don't keep the program open if close isn't called
+			return t;
+		});
+	}
+
+	/**
+	 * Copies the raster's current frame and queues it to be written, waiting if every buffer is in use.
+	 * @param raster Canvas the frame was rendered on, must be the same size as the writer.
+	 */
+	public void writeFrame(RasterCanvas raster) {
+		BufferedImage frame;
+		try {
+			frame = freeFrames.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		int[] data = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+		System.arraycopy(raster.getPixels(), 0, data, 0, width*height);
+		File file = new File(folder, String.format("frame_%06d.%s", frameNumber++, png ? "png" : "raw"));
+		encoders.execute(() -> {
+			try {
+				if (png) {
+					ImageIO.write(frame, "png", file);
+				} else {
+					writeRaw(data, file);
+				}
+				framesWritten.incrementAndGet();
+			} catch (IOException e) {
+				e.printStackTrace();
+			} finally {
+				freeFrames.add(frame); // buffer can be used for another frame
+			}
+		});
+	}
+
+	/**
+	 * Writes the pixels as they are, four bytes per pixel.
+	 * @param data ARGB value of every pixel.
+	 * @param file File written to.
+	 * @throws IOException If the file can't be written.
+	 */
+	private static void writeRaw(int[] data, File file) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate(data.length * 4);
+		bytes.asIntBuffer().put(data);
+		try (RandomAccessFile out = new RandomAccessFile(file, "rw"); FileChannel channel = out.getChannel()) {
+			channel.truncate(0);
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+		}
+	}
+
+	/**
+	 * Waits for every queued frame to be written and stops the encoder threads.
+	 */
+	public void close() {
+		encoders.shutdown();
+		try {
+			encoders.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Getter - Provides how many frames have been queued.
+	 * @return Number of frames passed to writeFrame.
+	 */
+	public int getFrameCount() {
+		return frameNumber;
+	}
+
+	/**
+	 * Getter - Provides how many frames have finished being written.
+	 * @return Number of frames on disk.
+	 */
+	public int getFramesWritten() {
+		return framesWritten.get();
+	}
+
+	public static void main(String[] args) {
+		// Code to test rendering without a window, writes frames of a random arena into the folder given
+		File folder = new File(args.length > 0 ? args[0] : "frames");
+		int frames = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		RasterCanvas raster = new RasterCanvas(512, 512);
+		RobotArena arena = new RobotArena();
+		for (int i=0; i<10; i++) {
+			arena.addObject(new Robot(raster, arena, 'r'));
+			arena.addObject(new WhiskerRobot(raster, arena, 'y'));
+			arena.addObject(new Obstacle(raster, arena));
+		}
+		FrameWriter writer = new FrameWriter(folder, true, raster.getWidth(), raster.getHeight(),
+				Runtime.getRuntime().availableProcessors(), DEFAULT_BUFFERS);
+		long start = System.nanoTime();
+		for (int i=0; i<frames; i++) {
+			arena.updateSystem(raster);
+			raster.clearCanvas();
+			arena.drawSystem(raster);
+			writer.writeFrame(raster);
+		}
+		writer.close();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(writer.getFramesWritten() + " frames written to " + folder + " in " + seconds + "s");
+	}
+}
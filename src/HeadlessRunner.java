@@ -0,0 +1,271 @@
+package RobotProjectGUI;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ *
+ * @author dijan
+ * Class that runs an arena without the GUI, as fast as it can, for a fixed number of ticks, then reports
+ * how fast it ran and what was left in the arena. An arena comes from a scenario file, a properties file such as
+ *
+ *     width=1024
+ *     height=1024
+ *     seed=42
+ *     ticks=10000
+ *     robots=50
+ *     hungryRobots=5
+ *     obstacles=20
+ *     collisions=neighbours
+ *     mazeCell=96
+ *     huntInterval=10
+ *     metrics=soak.csv
+ *     metricsPeriod=1000
+ *
+ * or from a file saved by the GUI. Collisions are checked against every item unless collisions=neighbours is
+ * given. If mazeCell is given, the arena is filled with the walls of a random maze with corridors that wide
+ * before any items are added. If huntInterval is given, hungry robots hunt the closest robot they could eat,
+ * looking for new prey that many ticks apart. If metrics is given, a line of the arena's metrics is written to
+ * that file every metricsPeriod milliseconds while it runs, as JSON lines if the file ends in .jsonl or .json
+ * and CSV otherwise. Several arenas can be run at once on a pool of threads, each writing its metrics to its
+ * own file, named after the run.
+ *
+ * Usage: HeadlessRunner [--threads N] [--ticks N] [--seed N] [--collisions all|neighbours]
+ *     [--metrics file.csv|file.jsonl] [--period ms] file...
+ */
+public class HeadlessRunner {
+	static final int DEFAULT_SIZE = 1024; // same size as the GUI's arena
+	static final long DEFAULT_TICKS = 1000;
+	static final long DEFAULT_METRICS_PERIOD = 1000; // milliseconds between lines of metrics
+	static final String[] ITEM_COUNTS = {"robots", "hungryRobots", "whiskerRobots", "controllableRobots",
+			"obstacles", "partyObstacles"}; // scenario properties giving how many of each item to add
+	private String name;
+	private Properties scenario;
+
+	/**
+	 * Constructor for a run.
+	 * @param _name Name shown in the report, usually the file name.
+	 * @param _scenario Settings of the run, see the class description.
+	 */
+	HeadlessRunner(String _name, Properties _scenario){
+		name = _name;
+		scenario = _scenario;
+	}
+
+	/**
+	 * Reads a run from a file, either a scenario properties file or a saved arena.
+	 * @param file File being read.
+	 * @param defaults Settings used when the file doesn't give them, such as the number of ticks.
+	 * @return The run.
+	 * @throws IOException If the file can't be read.
+	 */
+	static HeadlessRunner fromFile(File file, Properties defaults) throws IOException {
+		Properties scenario = new Properties(defaults);
+		if (file.getName().endsWith(".properties")) {
+			try (FileReader reader = new FileReader(file, StandardCharsets.UTF_8)) {
+				scenario.load(reader);
+			}
+		} else {
+			scenario.setProperty("save", file.getPath()); // saved arena, items are loaded rather than placed
+		}
+		return new HeadlessRunner(file.getName(), scenario);
+	}
+
+	/**
+	 * Builds the arena and runs it.
+	 * @return Report of the run.
+	 * @throws IOException If the saved arena can't be read.
+	 */
+	public String run() throws IOException {
+		int width = intSetting("width", DEFAULT_SIZE);
+		int height = intSetting("height", DEFAULT_SIZE);
+		long ticks = Long.parseLong(scenario.getProperty("ticks", Long.toString(DEFAULT_TICKS)));
+		long seed = Long.parseLong(scenario.getProperty("seed", "0"));
+		MyCanvas mc = new MyCanvas((GraphicsContext) null, width, height); // only used for its size, nothing is drawn
+		RobotArena arena = new RobotArena(seed);
+		if (scenario.getProperty("collisions", "all").trim().equals("neighbours")) {
+			arena.setCollisionMode(RobotArena.COLLIDE_NEIGHBOURS);
+		}
+		String save = scenario.getProperty("save");
+		if (save != null) {
+			arena.loadFromString(new String(Files.readAllBytes(new File(save).toPath()), StandardCharsets.UTF_8));
+		}
+		int mazeCell = intSetting("mazeCell", 0);
+		if (mazeCell > 0) {
+			arena.addMaze(mazeCell, mc);
+		}
+		arena.setHunting(intSetting("huntInterval", 0));
+		populate(arena, mc);
+
+		MetricsReporter reporter = startMetrics(arena);
+		long start = System.nanoTime();
+		try {
+			for (long t=0; t<ticks; t++) {
+				arena.updateSystem(mc);
+			}
+		} finally {
+			if (reporter != null) {
+				reporter.close(); // writes a last line for the end of the run
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		return report(arena, ticks, seconds);
+	}
+
+	/**
+	 * Starts writing the arena's metrics to the scenario's metrics file, if it has one.
+	 * @param arena Arena whose metrics are written.
+	 * @return The reporter, null if metrics aren't being written.
+	 * @throws IOException If the file can't be created.
+	 */
+	private MetricsReporter startMetrics(RobotArena arena) throws IOException {
+		String file = scenario.getProperty("metrics");
+		if (file == null) {
+			return null;
+		}
+		long period = Long.parseLong(scenario.getProperty("metricsPeriod", Long.toString(DEFAULT_METRICS_PERIOD)).trim());
+		boolean json = file.endsWith(".jsonl") || file.endsWith(".json");
+		return new MetricsReporter(arena.getMetrics(), new File(file), json, period);
+	}
+
+	/**
+	 * Names the run's metrics file after the run, so runs given the same file don't write over each other.
+	 * soak.csv becomes soak-run.csv for a run from run.properties.
+	 */
+	private void nameMetricsFile() {
+		String file = scenario.getProperty("metrics");
+		if (file == null) {
+			return;
+		}
+		String run = name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : name;
+		int dot = file.lastIndexOf('.');
+		if (dot > file.lastIndexOf(File.separatorChar)) {
+			scenario.setProperty("metrics", file.substring(0, dot) + "-" + run + file.substring(dot));
+		} else {
+			scenario.setProperty("metrics", file + "-" + run);
+		}
+	}
+
+	/**
+	 * Adds the number of each item given by the scenario, at random free positions.
+	 * @param arena Arena the items are added to.
+	 * @param mc Canvas giving the size of the arena.
+	 */
+	private void populate(RobotArena arena, MyCanvas mc) {
+		for (int type=0; type<ITEM_COUNTS.length; type++) {
+			int count = intSetting(ITEM_COUNTS[type], 0);
+			for (int i=0; i<count; i++) {
+				ArenaItem item;
+				switch (type) {
+				case 0:	item = new Robot(mc, arena, 'r');
+						break;
+				case 1:	item = new HungryRobot(mc, arena, 'g');
+						break;
+				case 2:	item = new WhiskerRobot(mc, arena, 'y');
+						break;
+				case 3:	item = new ControllableRobot(mc, arena, 'r');
+						break;
+				case 4:	item = new Obstacle(mc, arena);
+						break;
+				default:	item = new PartyObstacle(mc, arena);
+						break;
+				}
+				arena.addObject(item);
+			}
+		}
+	}
+
+	/**
+	 * Reads a whole number setting of the scenario.
+	 * @param key Name of the setting.
+	 * @param fallback Value used if the setting isn't given.
+	 * @return Value of the setting.
+	 */
+	private int intSetting(String key, int fallback) {
+		return Integer.parseInt(scenario.getProperty(key, Integer.toString(fallback)).trim());
+	}
+
+	/**
+	 * Describes how fast the run was and what is left in the arena.
+	 * @return Report of the run.
+	 */
+	private String report(RobotArena arena, long ticks, double seconds) {
+		SimulationMetrics metrics = arena.getMetrics();
+		int largest = 0;
+		List<HungryRobot> hungry = arena.getRegistry().getHungryRobots();
+		for (int i=0; i<hungry.size(); i++) {
+			largest = Math.max(largest, hungry.get(i).getRadius());
+		}
+		return String.format(Locale.ROOT, "%s: %d ticks in %.3fs (%.0f ticks/s, p50 %.1fus, p99 %.1fus)%n"
+				+ "  items %s%n  eaten %d, party infections %d, bullets destroyed %d, largest hungry robot radius %d",
+				name, ticks, seconds, ticks / Math.max(seconds, 1e-9),
+				metrics.getTickLatencyP50Micros(), metrics.getTickLatencyP99Micros(),
+				arena.countByType(), metrics.getRobotsEaten(), metrics.getPartyInfections(),
+				metrics.getBulletsDestroyed(), largest);
+	}
+
+	/**
+	 * Runs every file given on the command line, several at once if asked.
+	 * @param args Options and files, see the class description.
+	 */
+	public static void main(String[] args) throws Exception {
+		int threads = 1;
+		Properties defaults = new Properties();
+		ArrayList<HeadlessRunner> runs = new ArrayList<>();
+		for (int i=0; i<args.length; i++) {
+			switch (args[i]) {
+			case "--threads":	threads = Integer.parseInt(args[++i]);
+								break;
+			case "--ticks":		defaults.setProperty("ticks", args[++i]);
+								break;
+			case "--seed":		defaults.setProperty("seed", args[++i]);
+								break;
+			case "--collisions":	defaults.setProperty("collisions", args[++i]);
+								break;
+			case "--metrics":	defaults.setProperty("metrics", args[++i]);
+								break;
+			case "--period":		defaults.setProperty("metricsPeriod", args[++i]);
+								break;
+			default:			runs.add(fromFile(new File(args[i]), defaults));
+								break;
+			}
+		}
+		if (runs.isEmpty()) {
+			System.out.println("Usage: HeadlessRunner [--threads N] [--ticks N] [--seed N] [--collisions all|neighbours]"
+					+ " [--metrics file.csv|file.jsonl] [--period ms] file...");
+			return;
+		}
+		if (runs.size() > 1) {
+			for (int i=0; i<runs.size(); i++) {
+				runs.get(i).nameMetricsFile();
+			}
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<String>> reports = new ArrayList<>();
+		for (int i=0; i<runs.size(); i++) {
+			reports.add(pool.submit(runs.get(i)::run));
+		}
+		for (int i=0; i<reports.size(); i++) { // printed in the order given, whichever finishes first
+			try {
+				System.out.println(reports.get(i).get());
+			} catch (Exception e) {
+				System.out.println(runs.get(i).name + ": failed");
+				e.printStackTrace();
+			}
+		}
+		pool.shutdown();
+	}
+}
@@ -0,0 +1,215 @@
+package RobotProjectGUI;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ *
+ * @author dijan
+ * Class that counts how many values fall into each of a fixed set of buckets, so the spread of a value
+ * over a long run can be kept without keeping every value. Buckets are either equal widths, or each
+ * twice as wide as the last for values that range over many sizes, such as timings. Each of those can be
+ * split into equal sub-buckets, so a percentile is only out by the width of a sub-bucket rather than up to
+ * twice the value.
+ */
+public class Histogram {
+	private long[] buckets; // number of values in each bucket, the last one holds everything too large
+	private double bucketWidth; // width of each bucket, unused if exponential
+	private boolean exponential; // bucket i holds values below 2^i, when there is one sub-bucket
+	private int subBuckets = 1; // equal parts each power of two is split into, if exponential
+	private long count;
+	private double sum;
+	private double min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+
+	/**
+	 * Constructor for a histogram with buckets of equal width, starting at 0.
+	 * @param _bucketWidth Width of each bucket.
+	 * @param bucketCount Number of buckets, values past the last bucket are counted in it.
+	 */
+	Histogram(double _bucketWidth, int bucketCount){
+		bucketWidth = _bucketWidth;
+		buckets = new long[bucketCount];
+	}
+
+	/**
+	 * Constructor for a histogram where each bucket is twice as wide as the last.
+	 * @param bucketCount Number of buckets, bucket i holds values from 2^(i-1) up to 2^i.
+	 * @return The histogram.
+	 */
+	static Histogram exponential(int bucketCount) {
+		return exponential(bucketCount, 1);
+	}
+
+	/**
+	 * Constructor for a histogram where each power of two is split into equal sub-buckets, such as 16
+	 * buckets from 1024 to 2048, each 64 wide.
+	 * @param powers Number of powers of two covered, values from 2^(powers-1) up go in the last bucket.
+	 * @param _subBuckets Number of buckets each power of two is split into.
+	 * @return The histogram.
+	 */
+	static Histogram exponential(int powers, int _subBuckets) {
+		Histogram histogram = new Histogram(1, 1 + (powers - 1)*_subBuckets);
+		histogram.exponential = true;
+		histogram.subBuckets = _subBuckets;
+		return histogram;
+	}
+
+	/**
+	 * Counts a value.
+	 * @param value Value being counted, negative values go in the first bucket.
+	 */
+	public synchronized void record(double value) {
+		buckets[bucketOf(value)]++;
+		count++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Adds every value counted by another histogram with the same buckets.
+	 * @param other Histogram being added.
+	 */
+	public synchronized void add(Histogram other) {
+		synchronized (other) {
+			for (int i=0; i<buckets.length; i++) {
+				buckets[i] += other.buckets[i];
+			}
+			count += other.count;
+			sum += other.sum;
+			min = Math.min(min, other.min);
+			max = Math.max(max, other.max);
+		}
+	}
+
+	/**
+	 * Finds which bucket a value goes in.
+	 * @param value Value being counted.
+	 * @return Index of the bucket.
+	 */
+	private int bucketOf(double value) {
+		int bucket;
+		if (exponential && value < 1) {
+			bucket = 0;
+		} else if (exponential) {
+			int power = 64 - Long.numberOfLeadingZeros((long) value); // value is from 2^(power-1) up to 2^power
+			double lower = Math.pow(2, power - 1);
+			int sub = Math.min(subBuckets - 1, (int) ((value - lower) / (lower / subBuckets)));
+			bucket = 1 + (power - 1)*subBuckets + sub;
+		} else {
+			bucket = (int) Math.floor(value / bucketWidth);
+		}
+		return Math.max(0, Math.min(buckets.length - 1, bucket));
+	}
+
+	/**
+	 * Getter - Provides the value at the top of a bucket.
+	 * @param bucket Index of the bucket.
+	 * @return Smallest value that is past the bucket.
+	 */
+	public double upperBound(int bucket) {
+		if (!exponential) {
+			return (bucket + 1) * bucketWidth;
+		}
+		if (bucket == 0) {
+			return 1;
+		}
+		double lower = Math.pow(2, (bucket - 1) / subBuckets); // bottom of the power of two it is in
+		return lower + ((bucket - 1) % subBuckets + 1) * lower / subBuckets;
+	}
+
+	/**
+	 * Estimates a percentile, as the top of the bucket it falls in.
+	 * @param percent Percentile wanted, 50 for the median.
+	 * @return Estimated value, 0 if nothing has been counted.
+	 */
+	public synchronized double percentile(double percent) {
+		if (count == 0) {
+			return 0;
+		}
+		long target = (long) Math.ceil(percent / 100 * count);
+		long seen = 0;
+		for (int i=0; i<buckets.length; i++) {
+			seen += buckets[i];
+			if (seen >= Math.max(1, target)) {
+				return Math.min(max, upperBound(i));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Getter - Provides how many values have been counted.
+	 * @return Number of values.
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Getter - Provides the average of the values counted.
+	 * @return Mean value, 0 if nothing has been counted.
+	 */
+	public synchronized double getMean() {
+		return count == 0 ? 0 : sum / count;
+	}
+
+	/**
+	 * Getter - Provides the smallest value counted.
+	 * @return Smallest value, 0 if nothing has been counted.
+	 */
+	public synchronized double getMin() {
+		return count == 0 ? 0 : min;
+	}
+
+	/**
+	 * Getter - Provides the largest value counted.
+	 * @return Largest value, 0 if nothing has been counted.
+	 */
+	public synchronized double getMax() {
+		return count == 0 ? 0 : max;
+	}
+
+	/**
+	 * Getter - Provides how many values are in a bucket.
+	 * @param bucket Index of the bucket.
+	 * @return Number of values in it.
+	 */
+	public synchronized long getBucket(int bucket) {
+		return buckets[bucket];
+	}
+
+	/**
+	 * Getter - Provides the number of buckets.
+	 * @return Number of buckets.
+	 */
+	public int getBucketCount() {
+		return buckets.length;
+	}
+
+	/**
+	 * Forgets every value counted.
+	 */
+	public synchronized void clear() {
+		Arrays.fill(buckets, 0);
+		count = 0;
+		sum = 0;
+		min = Double.MAX_VALUE;
+		max = -Double.MAX_VALUE;
+	}
+
+	/**
+	 * Describes the histogram as one bucket per line, skipping empty buckets.
+	 */
+	public synchronized String toString() {
+		String output = String.format(Locale.ROOT, "count %d, mean %.2f, min %.2f, max %.2f\n", count, getMean(), getMin(), getMax());
+		double lower = 0;
+		for (int i=0; i<buckets.length; i++) {
+			if (buckets[i] > 0) {
+				output += String.format(Locale.ROOT, "%10.2f - %-10.2f %d\n", lower, upperBound(i), buckets[i]);
+			}
+			lower = upperBound(i);
+		}
+		return output;
+	}
+}
@@ -4,8 +4,20 @@ package RobotProjectGUI;
  * 
  * @author dijan
  * Class used to represent a robot that can eat other ArenaItem type objects.
+ * When hunting, it steers towards the closest robot it could eat. The arena finds that prey when the robot's
+ * retarget timer goes off, every few ticks rather than every tick, and in between the robot keeps steering
+ * towards the same prey. Timers of different robots go off on different ticks, so only a few look each tick.
  */
 public class HungryRobot extends Robot{
+	static final int GROWTH = 2; // radius gained for each item eaten
+	static final double SLOWDOWN = 0.025; // speed lost for each item eaten
+	static final double MIN_SPEED = 0.025; // slowest the hungry robot can go
+	static final int DEFAULT_RETARGET_INTERVAL = 10; // ticks between looking for prey
+	static final double HUNT_RANGE = 300; // furthest away prey is looked for
+	static final double TURN_RATE = 10; // most degrees turned towards prey in a tick
+	private int retargetInterval; // ticks between looking for prey, 0 when not hunting
+	private boolean wantsPrey; // if its retarget timer has gone off since the arena last looked for its prey
+	private ArenaItem prey; // robot being hunted, null if there is none in range
 /**
  * Constructor for default robot, used when loading from file
  * @param x
@@ -39,9 +51,6 @@ public class HungryRobot extends Robot{
 	public void drawObject(MyCanvas mc){
 		char robotColour = getIsParty() ? partyMode() : 'g';
 		mc.showRobot(getX(), getY(), getHeight(), getWidth(), getRadius(), getAngle(), robotColour);
-		if (getIsParty()) {
-			setSpeed(2); // adjust speed, needs to be fixed
-		}
 	}	
 	
 	/**
@@ -49,8 +58,18 @@ public class HungryRobot extends Robot{
 	 * @param mc Canvas needed to check if the size change stays within the arena's boundaries.
 	 */
     public void increaseSize(MyCanvas mc) {
+    	grow(1, mc);
+    }
+    
+	/**
+	 * Grows the robot once for everything it ate in a tick, so its size, speed and position are only
+	 * worked out once however much it ate.
+	 * @param meals Number of items eaten.
+	 * @param mc Canvas needed to check if the size change stays within the arena's boundaries.
+	 */
+    public void grow(int meals, MyCanvas mc) {
     	int oldRadius = getRadius();
-    	setRadius(getRadius()+2);
+    	setRadius(getRadius()+GROWTH*meals);
     	updateSize(getRadius(), oldRadius);
     	
     	if (!isValidPosition(getX(), getY(), mc)) {
@@ -61,11 +80,112 @@ public class HungryRobot extends Robot{
             setPosition(newX, newY);
     	}
     	
-    	if (getSpeed() > 0.025) {
-    		incrementSpeed(-0.025);
+    	setSpeed(Math.max(MIN_SPEED, getSpeed() - SLOWDOWN*meals)); // slowest the hungry robot can go
+    }
+    
+	/**
+	 * Setter - Turns hunting on or off. Its first look for prey is spread over the first interval by its ID,
+	 * so robots that start hunting together don't all look on the same ticks.
+	 * @param interval Ticks between looking for prey, 0 to stop hunting.
+	 */
+    public void setHunting(int interval) {
+    	retargetInterval = Math.max(0, interval);
+    	prey = null;
+    	wantsPrey = false;
+    	if (retargetInterval > 0) {
+    		schedule(RETARGET, 1 + getID() % retargetInterval);
+    	} else {
+    		cancelTimer(RETARGET);
     	}
-    	else if (getSpeed() < 0.025) {
-    		setSpeed(0.025); // slowest the hungry robot can go
+    }
+    
+    /**
+     * Checks if the robot is hunting.
+     * @return If it steers towards prey.
+     */
+    public boolean isHunting() {
+    	return retargetInterval > 0;
+    }
+    
+    /**
+     * Checks if the robot's retarget timer has gone off, so the arena needs to find its prey this tick.
+     * @return If it wants new prey.
+     */
+    public boolean wantsPrey() {
+    	return wantsPrey;
+    }
+    
+    /**
+     * Setter - Gives the robot the prey it will steer towards until it next looks.
+     * @param _prey Closest prey, null if there is none in range.
+     */
+    public void setPrey(ArenaItem _prey) {
+    	prey = _prey;
+    	wantsPrey = false;
+    }
+    
+    /**
+     * Getter - Provides the robot being hunted.
+     * @return The prey, null if there is none.
+     */
+    public ArenaItem getPrey() {
+    	return prey;
+    }
+    
+    /**
+     * Checks if an item is something the robot would eat if it caught it: any robot that isn't hungry, or a
+     * smaller hungry robot.
+     * @param item Item being checked.
+     * @return If the item is prey.
+     */
+    public boolean isPrey(ArenaItem item) {
+    	return item != this && item instanceof Robot && (!(item instanceof HungryRobot) || item.getRadius() < getRadius());
+    }
+    
+    /**
+     * Steers towards its prey before moving, unless it is turning away from a collision. Prey that has been
+     * eaten, or has grown too big, is dropped and new prey is looked for next tick.
+     * @param mc Needed for when checking if the new position is within the arena's bounds.
+     * @param isCollision Needed for checking if it is colliding with another item.
+     */
+    @Override
+    public void updatePosition(MyCanvas mc, boolean isCollision) {
+    	if (prey != null && (prey.getSlot(SlotList.ALL) < 0 || !isPrey(prey))) {
+    		prey = null;
+    		wantsPrey = true;
+    	}
+    	if (prey != null && !isCoolingDown()) {
+    		double towards = Math.toDegrees(Math.atan2(prey.getY() - getY(), prey.getX() - getX()));
+    		double turn = Math.IEEEremainder(towards - getAngle(), 360); // shortest way round, -180 to 180
+    		setAngle(getAngle() + Math.max(-TURN_RATE, Math.min(TURN_RATE, turn)));
+    	}
+    	super.updatePosition(mc, isCollision);
+    }
+    
+    /**
+     * Handles its retarget timer, then any other timer the same as other items.
+     * @param kind Which timer went off, eg RETARGET.
+     */
+    @Override
+    protected void onTimer(int kind) {
+    	if (kind == RETARGET) {
+    		wantsPrey = true;
+    		schedule(RETARGET, retargetInterval);
+    	} else {
+    		super.onTimer(kind);
+    	}
+    }
+    
+    /**
+     * Setter - Gives the robot the timer wheel of the arena it has been added to, starting its retarget timer
+     * again if it is hunting.
+     * @param wheel The arena's timer wheel.
+     */
+    @Override
+    void setTimerWheel(TimerWheel wheel) {
+    	super.setTimerWheel(wheel);
+    	if (retargetInterval > 0) {
+    		schedule(RETARGET, 1 + getID() % retargetInterval);
     	}
     }
     
@@ -0,0 +1,147 @@
+package RobotProjectGUI;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author dijan
+ * Class that finds items by their ID using open addressing, storing the IDs in a plain int array rather than
+ * boxing them, so adding, finding and removing an item are all constant time without creating any objects.
+ * Removed entries are filled by moving later entries back, so lookups never have to skip over deleted markers.
+ */
+public class ItemMap {
+	private static final int EMPTY = -1; // IDs are never negative
+	private int[] keys;
+	private ArenaItem[] values;
+	private int count;
+	private int mask; // table size - 1, the size is always a power of two
+
+	/**
+	 * Default constructor, creates an empty map.
+	 */
+	ItemMap(){
+		allocate(32);
+	}
+
+	/**
+	 * Adds an item, replacing any item with the same ID.
+	 * @param id Item's ID, not negative.
+	 * @param item Item being added.
+	 */
+	public void put(int id, ArenaItem item) {
+		if ((count + 1) * 2 > keys.length) { // keep the table at most half full
+			resize(keys.length * 2);
+		}
+		int i = indexOf(id);
+		if (keys[i] == EMPTY) {
+			keys[i] = id;
+			count++;
+		}
+		values[i] = item;
+	}
+
+	/**
+	 * Finds an item by its ID.
+	 * @param id ID being looked for.
+	 * @return The item, null if there is none with that ID.
+	 */
+	public ArenaItem get(int id) {
+		return id < 0 ? null : values[indexOf(id)];
+	}
+
+	/**
+	 * Removes an item by its ID.
+	 * @param id ID of the item being removed.
+	 * @return The item removed, null if there was none with that ID.
+	 */
+	public ArenaItem remove(int id) {
+		if (id < 0) {
+			return null;
+		}
+		int i = indexOf(id);
+		if (keys[i] == EMPTY) {
+			return null;
+		}
+		ArenaItem removed = values[i];
+		count--;
+		int gap = i;
+		int j = i;
+		while (true) { // move back any entry that would no longer be found past the gap
+			j = (j + 1) & mask;
+			if (keys[j] == EMPTY) {
+				break;
+			}
+			int home = hash(keys[j]);
+			if (((j - home) & mask) >= ((j - gap) & mask)) { // its home is at or before the gap
+				keys[gap] = keys[j];
+				values[gap] = values[j];
+				gap = j;
+			}
+		}
+		keys[gap] = EMPTY;
+		values[gap] = null;
+		return removed;
+	}
+
+	/**
+	 * Removes every item.
+	 */
+	public void clear() {
+		allocate(32);
+	}
+
+	/**
+	 * Getter - Provides the number of items in the map.
+	 * @return Number of items.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Finds where an ID is in the table, or the empty entry where it would go.
+	 */
+	private int indexOf(int id) {
+		int i = hash(id);
+		while (keys[i] != EMPTY && keys[i] != id) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	/**
+	 * Spreads out IDs, which are usually handed out in order, across the table.
+	 */
+	private int hash(int id) {
+		int h = id * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * Replaces the table with an empty one of a given size.
+	 */
+	private void allocate(int size) {
+		keys = new int[size];
+		Arrays.fill(keys, EMPTY);
+		values = new ArenaItem[size];
+		mask = size - 1;
+		count = 0;
+	}
+
+	/**
+	 * Moves every entry into a larger table.
+	 */
+	private void resize(int size) {
+		int[] oldKeys = keys;
+		ArenaItem[] oldValues = values;
+		allocate(size);
+		for (int i=0; i<oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int j = indexOf(oldKeys[i]);
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+				count++;
+			}
+		}
+	}
+}
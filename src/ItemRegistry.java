@@ -0,0 +1,115 @@
+package RobotProjectGUI;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * @author dijan
+ * Class that keeps the arena's items sorted into lists by type, kept in step with the arena as items are
+ * added and removed, so anything that only concerns one type of item, such as moving the controllable robots
+ * on a key press, only has to go through those items. Lists are SlotLists, so removing an item from them is
+ * constant time, but moves the last item of the list into its place.
+ */
+public class ItemRegistry {
+	private SlotList<Robot> robots = new SlotList<>(SlotList.TYPE); // every robot, including hungry, whisker and controllable robots
+	private SlotList<ControllableRobot> controllables = new SlotList<>(SlotList.SUBTYPE);
+	private SlotList<HungryRobot> hungryRobots = new SlotList<>(SlotList.SUBTYPE);
+	private SlotList<ArenaItem> obstacles = new SlotList<>(SlotList.TYPE); // items that never move, drawn on the static layer
+	private SlotList<PartyObstacle> partySources = new SlotList<>(SlotList.SUBTYPE); // obstacles that infect robots with party mode
+
+	/**
+	 * Adds an item to each list of its type.
+	 * @param item Item added to the arena.
+	 */
+	public void add(ArenaItem item) {
+		if (item instanceof Robot) {
+			robots.add((Robot) item);
+			if (item instanceof ControllableRobot) {
+				controllables.add((ControllableRobot) item);
+			}
+			if (item instanceof HungryRobot) {
+				hungryRobots.add((HungryRobot) item);
+			}
+		}
+		if (item.isStatic()) {
+			obstacles.add(item);
+		}
+		if (item instanceof PartyObstacle) {
+			partySources.add((PartyObstacle) item);
+		}
+	}
+
+	/**
+	 * Removes an item from each list of its type.
+	 * @param item Item removed from the arena.
+	 */
+	public void remove(ArenaItem item) {
+		if (item instanceof Robot) {
+			robots.remove(item);
+			if (item instanceof ControllableRobot) {
+				controllables.remove(item);
+			}
+			if (item instanceof HungryRobot) {
+				hungryRobots.remove(item);
+			}
+		}
+		if (item.isStatic()) {
+			obstacles.remove(item);
+		}
+		if (item instanceof PartyObstacle) {
+			partySources.remove(item);
+		}
+	}
+
+	/**
+	 * Empties every list.
+	 */
+	public void clear() {
+		robots.clear();
+		controllables.clear();
+		hungryRobots.clear();
+		obstacles.clear();
+		partySources.clear();
+	}
+
+	/**
+	 * Getter - Provides every robot.
+	 * @return Robots in the arena, the list can't be changed.
+	 */
+	public List<Robot> getRobots() {
+		return Collections.unmodifiableList(robots);
+	}
+
+	/**
+	 * Getter - Provides the robots the user controls.
+	 * @return Controllable robots in the arena, the list can't be changed.
+	 */
+	public List<ControllableRobot> getControllables() {
+		return Collections.unmodifiableList(controllables);
+	}
+
+	/**
+	 * Getter - Provides the robots that eat other robots.
+	 * @return Hungry robots in the arena, the list can't be changed.
+	 */
+	public List<HungryRobot> getHungryRobots() {
+		return Collections.unmodifiableList(hungryRobots);
+	}
+
+	/**
+	 * Getter - Provides the items that never move.
+	 * @return Static items in the arena, the list can't be changed.
+	 */
+	public List<ArenaItem> getObstacles() {
+		return Collections.unmodifiableList(obstacles);
+	}
+
+	/**
+	 * Getter - Provides the obstacles that infect robots with party mode.
+	 * @return Party obstacles in the arena, the list can't be changed.
+	 */
+	public List<PartyObstacle> getPartySources() {
+		return Collections.unmodifiableList(partySources);
+	}
+}
@@ -206,11 +206,13 @@ public class Line {
 		return sdist;
 	}
 	
-	/*
+	/**
+	 * return the end points of the line
+	 * @return array of x1, y1, x2, y2
+	 */
 	public double[] getLinePos() {
 		return coords;
 	}
-	*/
 	
 	/*
 	public void rotate(double angle) {
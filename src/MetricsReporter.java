@@ -0,0 +1,104 @@
+package RobotProjectGUI;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author dijan
+ * Class that writes a line of an arena's metrics to a file at a fixed interval, as CSV or JSON lines,
+ * so the performance of a long run can be charted afterwards.
+ */
+public class MetricsReporter {
+	static final String[] COLUMNS = {"time", "ticks", "ticksPerSecond", "tickP50Micros", "tickP99Micros", "tickMaxMicros",
+			"collisionsPerTick", "robotsEaten", "bulletsFired", "bulletsDestroyed", "partyInfections",
+			"liveEntities", "allocatedBytesPerTick"};
+	private SimulationMetrics metrics;
+	private BufferedWriter out;
+	private boolean json; // JSON lines if true, CSV if false
+	private ScheduledExecutorService timer;
+
+	/**
+	 * Constructor for a reporter, starts writing straight away.
+	 * @param _metrics Metrics being written.
+	 * @param file File written to, replaced if it exists.
+	 * @param _json If lines are written as JSON rather than CSV.
+	 * @param periodMillis Milliseconds between lines.
+	 * @throws IOException If the file can't be created.
+	 */
+	MetricsReporter(SimulationMetrics _metrics, File file, boolean _json, long periodMillis) throws IOException {
+		metrics = _metrics;
+		json = _json;
+		out = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8));
+		if (!json) {
+			out.write(String.join(",", COLUMNS));
+			out.newLine();
+		}
+		timer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "metrics-reporter");
+			t.setDaemon(true);
+			return t;
+		});
+		timer.scheduleAtFixedRate(this::report, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Writes one line of the current metrics.
+	 */
+	public synchronized void report() {
+		Object[] values = {System.currentTimeMillis(), metrics.getTicks(), metrics.getTicksPerSecond(),
+				metrics.getTickLatencyP50Micros(), metrics.getTickLatencyP99Micros(), metrics.getTickLatencyMaxMicros(),
+				metrics.getCollisionsPerTick(), metrics.getRobotsEaten(), metrics.getBulletsFired(),
+				metrics.getBulletsDestroyed(), metrics.getPartyInfections(), metrics.getLiveEntityCount(),
+				metrics.getAllocatedBytesPerTick()};
+		String line = "";
+		for (int i=0; i<values.length; i++) {
+			String value = values[i] instanceof Double ? String.format(Locale.ROOT, "%.3f", (Double) values[i]) : values[i].toString();
+			if (json) {
+				line += (i == 0 ? "{" : ",") + "\"" + COLUMNS[i] + "\":" + value;
+			} else {
+				line += (i == 0 ? "" : ",") + value;
+			}
+		}
+		if (json) {
+			String types = "";
+			for (Map.Entry<String, Integer> type : metrics.getLiveEntityCountMap().entrySet()) { // class names need no escaping
+				types += (types.isEmpty() ? "" : ",") + "\"" + type.getKey() + "\":" + type.getValue();
+			}
+			line += ",\"liveEntitiesByType\":{" + types + "}}";
+		}
+		try {
+			out.write(line);
+			out.newLine();
+			out.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Writes a last line and closes the file.
+	 */
+	public void close() {
+		timer.shutdown();
+		try {
+			timer.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		report();
+		try {
+			out.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -1,12 +1,14 @@
 package RobotProjectGUI;
 
 import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.ArcType;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 import javafx.scene.transform.Rotate;
 
@@ -19,6 +21,32 @@ public class MyCanvas {
 	int yCanvasSize = 512;
 	Line side1, side2, side3, side4; // border of arena
     GraphicsContext gc; 
+    static final int STATIC_LAYER = 0; // obstacles, only redrawn when they change
+    static final int DYNAMIC_LAYER = 1; // robots and bullets, redrawn every frame
+    static final int OVERLAY_LAYER = 2; // selection and debugging information, on top of everything
+    static final int LAYER_COUNT = 3;
+    private Canvas[] layerCanvases; // canvases stacked on top of each other, null if there is only one
+    private GraphicsContext[] layers; // graphics context of each layer
+    private DrawBatch batch = new DrawBatch(); // queued draw calls, used while batching
+    private boolean batching = false; // if draw calls are queued rather than drawn straight away
+    private SpriteCache sprites; // pre-rendered robots, null when robots are drawn from shapes
+    private double[] corners = new double[8]; // corners of the shape being drawn, reused so shapes don't allocate
+    private double[] whisker = new double[4]; // ends of the whisker being drawn, reused the same way
+    private double[] polygonX = new double[4], polygonY = new double[4]; // corners passed to fillPolygon
+    static final int LOD_FULL = 0, LOD_CIRCLE = 1, LOD_POINT = 2, LOD_SKIP = 3; // levels of detail, most detailed first
+    static final double LOD_CIRCLE_RADIUS = 4; // robots smaller than this on screen are drawn without wheels
+    static final double LOD_POINT_RADIUS = 1.5; // items smaller than this on screen are drawn as a point
+    static final int FULL_DETAIL_BUDGET = 2000; // most fully detailed robots drawn per batch
+    static final int CIRCLE_BUDGET = 8000; // most circles drawn per batch
+    static final int POINT_BUDGET = 30000; // most points drawn per batch, anything past this is skipped
+    static final double HEATMAP_CELL = 8; // size of each heatmap cell on screen
+    static final double HEATMAP_AREA_PER_ITEM = 64; // fewer pixels per item than this and the heatmap is drawn instead
+    private boolean levelOfDetail = true; // if the level of detail policy is used
+    private int viewWidth, viewHeight; // size of the canvas on screen, the world can be larger
+    private double cameraX, cameraY; // world position shown at the top left of the screen
+    private double zoom = 1; // screen pixels per world unit
+    static final double MIN_ZOOM = 0.05, MAX_ZOOM = 8;
+    private int fullDrawn, circlesDrawn, pointsDrawn; // draws used from each budget in this batch
 
     /**
      * constructor sets up relevant Graphics context and size of canvas
@@ -27,6 +55,49 @@ public class MyCanvas {
      */
     public MyCanvas(GraphicsContext g, int xcs, int ycs) {
     	gc = g;
+    	layers = new GraphicsContext[] {g, g, g}; // every layer draws onto the one canvas
+    	setSize(xcs, ycs);
+    	viewWidth = xcs;
+    	viewHeight = ycs;
+    }
+    
+    /**
+     * constructor that creates its own stacked canvases, one for each layer, so that
+     * static items and overlays don't need redrawing with the moving items every frame
+     * @param xcs
+     * @param ycs
+     */
+    public MyCanvas(int xcs, int ycs) {
+    	this(xcs, ycs, xcs, ycs);
+    }
+    
+    /**
+     * constructor that creates its own stacked canvases of the given screen size, showing
+     * a world that can be larger than the screen through a camera that pans and zooms
+     * @param vw width of the canvases on screen
+     * @param vh height of the canvases on screen
+     * @param xcs width of the world
+     * @param ycs height of the world
+     */
+    public MyCanvas(int vw, int vh, int xcs, int ycs) {
+    	layerCanvases = new Canvas[LAYER_COUNT];
+    	layers = new GraphicsContext[LAYER_COUNT];
+    	for (int i=0; i<LAYER_COUNT; i++) {
+    		layerCanvases[i] = new Canvas(vw, vh);
+    		layers[i] = layerCanvases[i].getGraphicsContext2D();
+    	}
+    	gc = layers[DYNAMIC_LAYER];
+    	setSize(xcs, ycs);
+    	viewWidth = vw;
+    	viewHeight = vh;
+    }
+    
+    /**
+     * sets size of canvas and the lines bordering it
+     * @param xcs
+     * @param ycs
+     */
+    private void setSize(int xcs, int ycs) {
     	xCanvasSize = xcs;
     	yCanvasSize = ycs;
     	side1 = new Line(0,0,xcs,0); // top left to top right
@@ -35,6 +106,16 @@ public class MyCanvas {
     	side4 = new Line(xcs,0,xcs,ycs); // top right to bottom right
     }
     
+    /**
+     * sets the size of the canvas on screen, for canvases that don't create their own
+     * @param vw width of the canvas on screen
+     * @param vh height of the canvas on screen
+     */
+    protected void setViewSize(int vw, int vh) {
+    	viewWidth = vw;
+    	viewHeight = vh;
+    }
+    
     public int getXCanvasSize() {
     	return xCanvasSize;
     }
@@ -45,16 +126,296 @@ public class MyCanvas {
      * clear the canvas
      */
     public void clearCanvas() {
-		gc.clearRect(0,  0,  xCanvasSize,  yCanvasSize);		// clear canvas
+    	gc.save();
+    	gc.setTransform(1, 0, 0, 1, 0, 0);			// whole screen, wherever the camera is
+		gc.clearRect(0,  0,  viewWidth,  viewHeight);		// clear canvas
+		gc.restore();
+    }
+    
+    /**
+     * Moves the camera by a distance on screen, such as when the view is dragged.
+     * @param dx Screen pixels moved right.
+     * @param dy Screen pixels moved down.
+     */
+    public void pan(double dx, double dy) {
+    	setCamera(cameraX - dx / zoom, cameraY - dy / zoom, zoom);
+    }
+    
+    /**
+     * Zooms in or out, keeping the world position under a point on screen in the same place.
+     * @param factor Amount to multiply the zoom by, above 1 zooms in.
+     * @param screenX Screen x position to zoom around, such as the mouse.
+     * @param screenY Screen y position to zoom around.
+     */
+    public void zoomAt(double factor, double screenX, double screenY) {
+    	double newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+    	double worldX = toWorldX(screenX);
+    	double worldY = toWorldY(screenY);
+    	setCamera(worldX - screenX / newZoom, worldY - screenY / newZoom, newZoom);
+    }
+    
+    /**
+     * Zooms so the whole world fits on screen.
+     */
+    public void fitWorld() {
+    	double newZoom = Math.min((double) viewWidth / xCanvasSize, (double) viewHeight / yCanvasSize);
+    	setCamera(0, 0, newZoom);
+    }
+    
+    /**
+     * Sets the camera and applies it to every layer. The camera is kept from wandering off the world.
+     * @param x World x position at the top left of the screen.
+     * @param y World y position at the top left of the screen.
+     * @param _zoom Screen pixels per world unit.
+     */
+    public void setCamera(double x, double y, double _zoom) {
+    	zoom = _zoom;
+    	double viewWorldWidth = viewWidth / zoom;
+    	double viewWorldHeight = viewHeight / zoom;
+    	// at least half the screen always shows the world
+    	cameraX = Math.max(-viewWorldWidth / 2, Math.min(xCanvasSize - viewWorldWidth / 2, x));
+    	cameraY = Math.max(-viewWorldHeight / 2, Math.min(yCanvasSize - viewWorldHeight / 2, y));
+    	for (int i=0; i<layers.length; i++) {
+    		if (layers[i] != null) { // headless canvases have no graphics context
+    			layers[i].setTransform(zoom, 0, 0, zoom, -cameraX * zoom, -cameraY * zoom);
+    		}
+    	}
+    }
+    
+    /**
+     * Converts a screen x position, such as the mouse, into the world.
+     * @param screenX Screen x position.
+     * @return World x position.
+     */
+    public double toWorldX(double screenX) {
+    	return cameraX + screenX / zoom;
+    }
+    
+    /**
+     * Converts a screen y position, such as the mouse, into the world.
+     * @param screenY Screen y position.
+     * @return World y position.
+     */
+    public double toWorldY(double screenY) {
+    	return cameraY + screenY / zoom;
+    }
+    
+    /**
+     * Getter - Provides the world position of the left edge of the screen.
+     * @return Left edge of the view.
+     */
+    public double getViewMinX() {
+    	return cameraX;
+    }
+    
+    /**
+     * Getter - Provides the world position of the top edge of the screen.
+     * @return Top edge of the view.
+     */
+    public double getViewMinY() {
+    	return cameraY;
+    }
+    
+    /**
+     * Getter - Provides the world position of the right edge of the screen.
+     * @return Right edge of the view.
+     */
+    public double getViewMaxX() {
+    	return cameraX + viewWidth / zoom;
+    }
+    
+    /**
+     * Getter - Provides the world position of the bottom edge of the screen.
+     * @return Bottom edge of the view.
+     */
+    public double getViewMaxY() {
+    	return cameraY + viewHeight / zoom;
+    }
+    
+    /**
+     * Getter - Provides the camera's zoom.
+     * @return Screen pixels per world unit.
+     */
+    public double getZoom() {
+    	return zoom;
+    }
+    
+    /**
+     * Checks if each layer has its own canvas.
+     * @return If the canvas is layered.
+     */
+    public boolean hasLayers() {
+    	return layerCanvases != null;
+    }
+    
+    /**
+     * Getter - Provides the canvases for each layer, bottom first, so they can be stacked in the GUI.
+     * @return Canvases of each layer, null if there is only one canvas.
+     */
+    public Canvas[] getLayerCanvases() {
+    	return layerCanvases;
+    }
+    
+    /**
+     * Draws onto the given layer until another layer is chosen.
+     * @param layer STATIC_LAYER, DYNAMIC_LAYER or OVERLAY_LAYER.
+     */
+    public void useLayer(int layer) {
+    	gc = layers[layer];
+    }
+    
+    /**
+     * Clears the dirty regions and limits drawing to them, until endRegionRedraw is called.
+     * @param regions Regions of the current layer that need redrawing.
+     */
+    public void beginRegionRedraw(DirtyRegions regions) {
+    	gc.save();
+    	gc.beginPath();
+    	for (int i=0; i<regions.size(); i++) {
+    		double minX = regions.get(i, 0);
+    		double minY = regions.get(i, 1);
+    		double width = regions.get(i, 2) - minX;
+    		double height = regions.get(i, 3) - minY;
+    		gc.rect(minX, minY, width, height);
+    		gc.clearRect(minX, minY, width, height);
+    	}
+    	gc.clip(); // anything drawn outside the regions is ignored
+    }
+    
+    /**
+     * Removes the limit set by beginRegionRedraw.
+     */
+    public void endRegionRedraw() {
+    	gc.restore();
+    }
+    
+    /**
+     * Turns drawing robots from cached images on/off.
+     * @param useSprites If robots should be drawn from the sprite cache.
+     */
+    public void setUseSprites(boolean useSprites) {
+    	sprites = useSprites ? new SpriteCache() : null;
+    }
+    
+    /**
+     * Starts queuing draw calls instead of drawing them, so a whole frame can be drawn
+     * with one colour change per colour and shape.
+     */
+    public void beginBatch() {
+    	batching = true;
+    	fullDrawn = 0;
+    	circlesDrawn = 0;
+    	pointsDrawn = 0;
+    }
+    
+    /**
+     * Turns the level of detail policy on/off. When off, everything is drawn in full.
+     * @param _levelOfDetail If small or numerous items are drawn with less detail.
+     */
+    public void setLevelOfDetail(boolean _levelOfDetail) {
+    	levelOfDetail = _levelOfDetail;
+    }
+    
+    /**
+     * Chooses how much detail to draw an item with. Items smaller on screen get less detail, and
+     * once a level's budget for this batch is used up, items drop down to the next level, so a frame
+     * never has more than a fixed number of draw calls however many items there are.
+     * @param rad Item's radius.
+     * @param detailed If the item has more than a body to draw, such as wheels.
+     * @return LOD_FULL, LOD_CIRCLE, LOD_POINT or LOD_SKIP.
+     */
+    int levelOfDetail(double rad, boolean detailed) {
+    	if (!levelOfDetail) {
+    		return detailed ? LOD_FULL : LOD_CIRCLE;
+    	}
+    	int level;
+    	double screenRad = rad * zoom; // size it appears on screen
+    	if (screenRad < LOD_POINT_RADIUS) {
+    		level = LOD_POINT;
+    	} else if (!detailed || screenRad < LOD_CIRCLE_RADIUS) {
+    		level = LOD_CIRCLE;
+    	} else {
+    		level = LOD_FULL;
+    	}
+    	if (!batching) {
+    		return level; // budgets are per batch
+    	}
+    	if (level == LOD_FULL && fullDrawn >= FULL_DETAIL_BUDGET) level = LOD_CIRCLE;
+    	if (level == LOD_CIRCLE && circlesDrawn >= CIRCLE_BUDGET) level = LOD_POINT;
+    	if (level == LOD_POINT && pointsDrawn >= POINT_BUDGET) level = LOD_SKIP;
+    	switch (level) {
+    	case LOD_FULL:	fullDrawn++;
+    					break;
+    	case LOD_CIRCLE:	circlesDrawn++;
+    					break;
+    	case LOD_POINT:	pointsDrawn++;
+    					break;
+    	}
+    	return level;
+    }
+    
+    /**
+     * Checks if there are so many items on screen that a heatmap of them should be drawn instead.
+     * @param itemCount Number of items on screen.
+     * @return If the heatmap should be drawn.
+     */
+    public boolean shouldUseHeatmap(int itemCount) {
+    	return levelOfDetail && itemCount * HEATMAP_AREA_PER_ITEM > (double) viewWidth * viewHeight;
+    }
+    
+    /**
+     * Shows how many items are in each cell of a grid, darker cells having more items.
+     * Cells are grouped into a few shades, so there is one fill per shade.
+     * @param counts Number of items in each cell, row by row.
+     * @param columns Number of columns in the grid.
+     * @param rows Number of rows in the grid.
+     * @param cellSize Width and height of each cell.
+     * @param originX x position of the grid's left edge.
+     * @param originY y position of the grid's top edge.
+     */
+    public void showHeatmap(int[] counts, int columns, int rows, double cellSize, double originX, double originY) {
+    	int shades = 8;
+    	int max = 1;
+    	for (int i=0; i<columns*rows; i++) {
+    		max = Math.max(max, counts[i]);
+    	}
+    	for (int shade=0; shade<shades; shade++) {
+    		boolean any = false;
+    		gc.beginPath();
+    		for (int i=0; i<columns*rows; i++) {
+    			if (counts[i] > 0 && Math.min(shades - 1, counts[i] * shades / (max + 1)) == shade) {
+    				gc.rect(originX + (i % columns) * cellSize, originY + (i / columns) * cellSize, cellSize, cellSize);
+    				any = true;
+    			}
+    		}
+    		if (any) {
+    			gc.setFill(Color.rgb(255, 80, 0, (shade + 1.0) / shades));
+    			gc.fill();
+    		}
+    	}
+    }
+    
+    /**
+     * Draws everything queued since beginBatch and goes back to drawing straight away.
+     */
+    public void flushBatch() {
+    	batching = false;
+    	if (!batch.isEmpty()) {
+    		batch.flush(gc, this);
+    	}
     }
 	/**
-     * drawImage ... draws object defined by given image at position and size
+     * drawImage ... draws object defined by given image at position and size.
+     * Images are drawn straight away, so anything queued in the batch before it is drawn first, underneath it.
      * @param i		image
      * @param x		xposition	in range 0..1
      * @param y
      * @param sz	size
      */
 	public void drawImage (Image i, double x, double y, double sz) {
+		if (batching && !batch.isEmpty()) {
+			batch.flush(gc, this); // shapes queued before the image go under it, batching carries on after
+		}
 			// to draw centred at x,y, give top left position and x,y size
 			// sizes/position in range 0.. canvassize 
 		gc.drawImage(i, x - sz/2, y - sz/2, sz, sz);
@@ -102,9 +463,84 @@ public class MyCanvas {
 	 * @param col
 	 */
 	public void showCircle(double x, double y, double rad, char col) {
+		switch (levelOfDetail(rad, false)) {
+		case LOD_SKIP:	return;
+		case LOD_POINT:	showPoint(x, y, col);
+						return;
+		}
+		fillCircle(x, y, rad, col);
+	}
+	
+	/**
+	 * show the ball at position x,y , radius r in colour defined by col, whatever its level of detail.
+	 * This and fillQuad/drawLine are the only primitives items are built from, so another backend only needs these.
+	 * @param x
+	 * @param y
+	 * @param rad
+	 * @param col
+	 */
+	protected void fillCircle(double x, double y, double rad, char col) {
+		if (batching) {
+			batch.addCircle(col, x, y, rad);
+			return;
+		}
 	 	setFillColour(colFromChar(col));			// set the fill colour
 	 	showCircle(x, y, rad);						// show the circle
 	}
+	
+	/**
+	 * Fills a four sided shape in colour col.
+	 * @param col Shape's colour.
+	 * @param corners x1, y1, x2, y2, x3, y3, x4, y4 of the shape, in drawing order, may be reused once this returns.
+	 */
+	protected void fillQuad(char col, double[] corners) {
+		if (batching) {
+			batch.addQuad(col, corners);
+			return;
+		}
+		setFillColour(colFromChar(col));
+		for (int i=0; i<4; i++) {
+			polygonX[i] = corners[i*2];
+			polygonY[i] = corners[i*2+1];
+		}
+		gc.fillPolygon(polygonX, polygonY, 4);
+	}
+	
+	/**
+	 * Draws a black line, such as a whisker.
+	 * @param x1 Start x position.
+	 * @param y1 Start y position.
+	 * @param x2 End x position.
+	 * @param y2 End y position.
+	 */
+	protected void drawLine(double x1, double y1, double x2, double y2) {
+		if (batching) {
+			batch.addLine(x1, y1, x2, y2);
+			return;
+		}
+		gc.setStroke(Color.BLACK);
+		gc.strokeLine(x1, y1, x2, y2);
+	}
+	
+	/**
+	 * Shows one of the arena's walls as a black line.
+	 * @param wall Wall being shown.
+	 */
+	public void showWall(Line wall) {
+		double[] ends = wall.getLinePos();
+		drawLine(ends[0], ends[1], ends[2], ends[3]);
+	}
+	
+	/**
+	 * Show an item too small to see any detail as a single pixel.
+	 * @param x Item's x position.
+	 * @param y Item's y position.
+	 * @param col Item's colour.
+	 */
+	public void showPoint(double x, double y, char col) {
+		double size = 1 / zoom; // one pixel on screen
+		fillQuad(col, rectCorners(corners, x, y, size, size));
+	}
 
 	/**
 	 * show the ball in the current colour at x,y size rad
@@ -125,8 +561,7 @@ public class MyCanvas {
 	 * @param col Wheel's colour.
 	 */
 	public void showWheel(double x, double y, double width, double height, char col) {
-	 	setFillColour(colFromChar(col));			// set the fill colour
-	 	showWheel(x, y, width, height);						// show the circle
+		fillQuad(col, rectCorners(corners, x, y, width, height));
 	}
 	
 	/**
@@ -141,8 +576,27 @@ public class MyCanvas {
 	}
 	
 	/**
-	 * Presents robot onto canvas, done so as a body and two wheels. Starts with setting robot
-	 * as the origin for rotation, adds robot while it is rotated and restores the canvas' changes.
+	 * Draws a robot with less detail if the level of detail policy says so.
+	 * @param x Robot's x position.
+	 * @param y Robot's y position.
+	 * @param rad Robot's radius.
+	 * @param col Robot's colour.
+	 * @return True if the robot still needs drawing in full, false if it has been drawn (or skipped).
+	 */
+	private boolean showRobotLevelOfDetail(double x, double y, double rad, char col) {
+		switch (levelOfDetail(rad, true)) {
+		case LOD_FULL:	return true;
+		case LOD_CIRCLE:	fillCircle(x, y, rad, col);
+						break;
+		case LOD_POINT:	showPoint(x, y, col);
+						break;
+		}
+		return false;
+	}
+	
+	/**
+	 * Presents robot onto canvas, done so as a body and two wheels. Rather than rotating the canvas,
+	 * the wheel corners are rotated around the robot's centre, so no transform is needed per robot.
 	 * @param x Robot's x position.
 	 * @param y Robot's y position.
 	 * @param h Robot's wheel height.
@@ -157,14 +611,18 @@ public class MyCanvas {
 		double wheelY1 = (y+rad-height);
 		double wheelX2 = x-rad;
 		double wheelY2 = (y-rad);
-		gc.save();
-		gc.translate(x, y); // translate canvas to robot's centre so it doesnt go off screen
-		gc.rotate(angle); // rotates whole canvas
-		gc.translate(-x, -y); // translate canvas back to original point
-		showCircle(x, y, rad, col);
-		showWheel(wheelX1, wheelY1, width, height, 'x');
-		showWheel(wheelX2, wheelY2, width, height, 'x');
-		gc.restore();
+		if (!showRobotLevelOfDetail(x, y, rad, col)) {
+			return; // drawn with less detail
+		}
+		if (sprites != null) {
+			sprites.drawRobot(this, x, y, height, width, rad, angle, col);
+			return;
+		}
+		double cos = Math.cos(Math.toRadians(angle));
+		double sin = Math.sin(Math.toRadians(angle));
+		fillCircle(x, y, rad, col);
+		fillQuad('x', rotatedRect(x, y, cos, sin, wheelX1, wheelY1, width, height, corners));
+		fillQuad('x', rotatedRect(x, y, cos, sin, wheelX2, wheelY2, width, height, corners));
 	}
 	
 	/**
@@ -182,15 +640,132 @@ public class MyCanvas {
 		double wheelY1 = (y+rad-height);
 		double wheelX2 = x-rad;
 		double wheelY2 = (y-rad);
+		if (!showRobotLevelOfDetail(x, y, rad, col)) {
+			return; // drawn with less detail
+		}
+		if (sprites != null) {
+			sprites.drawWhiskerRobot(this, x, y, height, width, rad, angle, col);
+			return;
+		}
+		double cos = Math.cos(Math.toRadians(angle));
+		double sin = Math.sin(Math.toRadians(angle));
+		fillCircle(x, y, rad, col); // body
+		fillQuad('x', rotatedRect(x, y, cos, sin, wheelX1, wheelY1, width, height, corners)); // wheels
+		fillQuad('x', rotatedRect(x, y, cos, sin, wheelX2, wheelY2, width, height, corners));
+		whisker[0] = x+rad; // drawing whiskers
+		whisker[1] = y+rad;
+		whisker[2] = x+rad+15;
+		whisker[3] = y+rad+height+15;
+		rotatedPoints(x, y, cos, sin, whisker);
+		drawLine(whisker[0], whisker[1], whisker[2], whisker[3]);
+		whisker[0] = x+rad;
+		whisker[1] = y-rad;
+		whisker[2] = x+rad+15;
+		whisker[3] = y-rad-15;
+		rotatedPoints(x, y, cos, sin, whisker);
+		drawLine(whisker[0], whisker[1], whisker[2], whisker[3]);
+	}
+	
+	/**
+	 * Works out the corners of a rectangle once it has been rotated around a point, the same as
+	 * rotating the canvas around that point and drawing the rectangle.
+	 * @param cx x position being rotated around.
+	 * @param cy y position being rotated around.
+	 * @param cos Cosine of the rotation angle.
+	 * @param sin Sine of the rotation angle.
+	 * @param x Rectangle's top left x position before rotating.
+	 * @param y Rectangle's top left y position before rotating.
+	 * @param width Rectangle's width.
+	 * @param height Rectangle's height.
+	 * @param out Array of 8 the corners are written to.
+	 * @return out, holding x1, y1 .. x4, y4 of the rotated corners.
+	 */
+	static double[] rotatedRect(double cx, double cy, double cos, double sin, double x, double y, double width, double height, double[] out) {
+		return rotatedPoints(cx, cy, cos, sin, rectCorners(out, x, y, width, height));
+	}
+	
+	/**
+	 * Works out the corners of a rectangle that isn't rotated, in drawing order.
+	 * @param out Array of 8 the corners are written to.
+	 * @param x Rectangle's top left x position.
+	 * @param y Rectangle's top left y position.
+	 * @param width Rectangle's width.
+	 * @param height Rectangle's height.
+	 * @return out, holding x1, y1 .. x4, y4 of the corners.
+	 */
+	static double[] rectCorners(double[] out, double x, double y, double width, double height) {
+		out[0] = x;
+		out[1] = y;
+		out[2] = x+width;
+		out[3] = y;
+		out[4] = x+width;
+		out[5] = y+height;
+		out[6] = x;
+		out[7] = y+height;
+		return out;
+	}
+	
+	/**
+	 * Rotates a list of points around a point, the list is changed in place.
+	 * @param cx x position being rotated around.
+	 * @param cy y position being rotated around.
+	 * @param cos Cosine of the rotation angle.
+	 * @param sin Sine of the rotation angle.
+	 * @param points x1, y1, x2, y2 ... of the points.
+	 * @return The same list, now rotated.
+	 */
+	static double[] rotatedPoints(double cx, double cy, double cos, double sin, double[] points) {
+		for (int i=0; i<points.length; i+=2) {
+			double dx = points[i] - cx;
+			double dy = points[i+1] - cy;
+			points[i] = cx + dx*cos - dy*sin;
+			points[i+1] = cy + dx*sin + dy*cos;
+		}
+		return points;
+	}
+	
+	/**
+	 * Outlines an item to show it is selected.
+	 * @param x Item's x position.
+	 * @param y Item's y position.
+	 * @param rad Radius of the outline.
+	 */
+	public void showSelection(double x, double y, double rad) {
+		gc.setStroke(Color.DODGERBLUE);
+		gc.setLineWidth(2);
+		gc.strokeOval(x-rad, y-rad, rad*2, rad*2);
+		gc.setLineWidth(1);
+	}
+	
+	/**
+	 * Outlines each of the regions, used for debugging what is being redrawn.
+	 * @param regions Regions to outline.
+	 */
+	public void showRegions(DirtyRegions regions) {
+		gc.setStroke(Color.MAGENTA);
+		for (int i=0; i<regions.size(); i++) {
+			gc.strokeRect(regions.get(i, 0), regions.get(i, 1), regions.get(i, 2) - regions.get(i, 0), regions.get(i, 3) - regions.get(i, 1));
+		}
+	}
+	
+	/**
+	 * Shows lines of text in a dark box at the top left of the screen, wherever the camera is.
+	 * Used for debugging information such as timings.
+	 * @param lines Lines of text, top line first.
+	 */
+	public void showPanel(String[] lines) {
+		double lineHeight = 14;
 		gc.save();
-		gc.translate(x, y); // translate canvas to robot's centre so it doesnt go off screen
-		gc.rotate(angle); // rotates whole canvas
-		gc.translate(-x, -y); // translate canvas back to original point
-		showCircle(x, y, rad, col); // body
-		showWheel(wheelX1, wheelY1, width, height, 'x'); // wheels
-		showWheel(wheelX2, wheelY2, width, height, 'x');
-		gc.strokeLine(x+rad,y+rad,x+rad+15,y+rad+height+15); // drawing whiskers
-		gc.strokeLine(x+rad,y-rad,x+rad+15,y-rad-15);
+		gc.setTransform(1, 0, 0, 1, 0, 0);
+		gc.setFill(Color.rgb(0, 0, 0, 0.6));
+		gc.fillRect(4, 4, viewWidth - 8, lines.length * lineHeight + 8);
+		gc.setFont(Font.font("Monospaced", 11));
+		gc.setTextAlign(TextAlignment.LEFT);
+		gc.setTextBaseline(VPos.TOP);
+		gc.setFill(Color.WHITE);
+		for (int i=0; i<lines.length; i++) {
+			gc.fillText(lines[i], 8, 8 + i * lineHeight);
+		}
 		gc.restore();
 	}
 	
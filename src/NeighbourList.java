@@ -0,0 +1,208 @@
+package RobotProjectGUI;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ *
+ * @author dijan
+ * Class that remembers, for each item, the other items close enough that they might touch it soon (a Verlet
+ * neighbour list), so collision checks only look at those rather than every item in the arena. Each item's
+ * neighbours are the items within both radii plus a skin margin. Items only move a pixel or two a tick, so the
+ * lists stay correct until something has moved or grown by half the skin, and only then are they rebuilt.
+ * Items removed from the arena are skipped rather than causing a rebuild. Neighbours are given in the order
+ * the items are in the arena, so the first collision found is the same as checking every item.
+ */
+public class NeighbourList {
+	static final double DEFAULT_SKIN = 24; // extra distance around each item, in pixels
+	private static final Comparator<ArenaItem> ARENA_ORDER = Comparator.comparingInt(item -> item.getSlot(SlotList.ALL));
+	private double baseSkin;
+	private double skin; // skin used for the current lists, can be larger than baseSkin for fast items
+	private double tickStep; // furthest an item can still move this tick, allowed for when items grow
+	private SpatialGrid grid; // items as they were when the lists were built, used to build them
+	private ArenaItem[] members = new ArenaItem[0]; // items the lists were built for
+	private double[] builtX = new double[0], builtY = new double[0]; // where each item was when the lists were built
+	private int[] builtRadius = new int[0];
+	private int memberCount;
+	private int[] start = new int[1]; // where each item's neighbours start in neighbours, one extra at the end
+	private ArenaItem[] neighbours = new ArenaItem[0];
+	private boolean stale = true; // if the lists can't be used until they are rebuilt
+	private boolean reordered; // if items have been removed since the lists were built, which changes the arena's order
+	private int rebuilds; // times the lists have been built
+	private ArrayList<ArenaItem> nearby = new ArrayList<>(); // reused while building and querying
+
+	/**
+	 * Constructor for neighbour lists covering an arena.
+	 * @param width Width of the arena.
+	 * @param height Height of the arena.
+	 * @param _skin Extra distance around each item.
+	 */
+	NeighbourList(double width, double height, double _skin){
+		grid = new SpatialGrid(width, height);
+		baseSkin = _skin;
+		skin = _skin;
+	}
+
+	/**
+	 * Makes sure the lists are correct for the coming tick, rebuilding them if items have been added, or
+	 * could have moved far enough to have new neighbours by the end of the tick.
+	 * @param items Every moving item in the arena.
+	 * @param maxStep Furthest any item can move in one tick.
+	 */
+	public void prepare(List<? extends ArenaItem> items, double maxStep) {
+		tickStep = maxStep;
+		if (!stale && maxStep <= skin/2) {
+			double limit = skin/2 - maxStep; // the tick's own movement has to fit in the skin too
+			boolean tooFar = false;
+			for (int i=0; i<memberCount && !tooFar; i++) {
+				tooFar = members[i].getNeighbourIndex() == i && change(i) > limit; // removed items don't matter
+			}
+			if (!tooFar) {
+				return;
+			}
+		}
+		skin = Math.max(baseSkin, 12*maxStep); // so fast items don't cause a rebuild every tick
+		rebuild(items);
+	}
+
+	/**
+	 * Builds every item's list of neighbours from where the items are now.
+	 * @param items Every moving item in the arena.
+	 */
+	public void rebuild(List<? extends ArenaItem> items) {
+		for (int i=0; i<memberCount; i++) {
+			if (members[i].getNeighbourIndex() == i) {
+				members[i].setNeighbourIndex(-1);
+			}
+		}
+		memberCount = items.size();
+		if (members.length < memberCount) {
+			int size = Math.max(memberCount, members.length*2);
+			members = new ArenaItem[size];
+			builtX = new double[size];
+			builtY = new double[size];
+			builtRadius = new int[size];
+			start = new int[size + 1];
+		}
+		grid.rebuild(items);
+		int total = 0;
+		for (int i=0; i<memberCount; i++) {
+			ArenaItem item = items.get(i);
+			members[i] = item;
+			item.setNeighbourIndex(i);
+			builtX[i] = item.getX();
+			builtY[i] = item.getY();
+			builtRadius[i] = item.getRadius();
+			start[i] = total;
+			nearby.clear();
+			double reach = item.getRadius() + skin;
+			grid.query(item.getX() - reach, item.getY() - reach, item.getX() + reach, item.getY() + reach, nearby);
+			nearby.sort(ARENA_ORDER);
+			for (int j=0; j<nearby.size(); j++) {
+				ArenaItem other = nearby.get(j);
+				double distance = item.getRadius() + other.getRadius() + skin;
+				double dx = item.getX() - other.getX();
+				double dy = item.getY() - other.getY();
+				if (other != item && dx*dx + dy*dy <= distance*distance) {
+					if (total == neighbours.length) {
+						ArenaItem[] larger = new ArenaItem[Math.max(64, neighbours.length*2)];
+						System.arraycopy(neighbours, 0, larger, 0, total);
+						neighbours = larger;
+					}
+					neighbours[total++] = other;
+				}
+			}
+		}
+		start[memberCount] = total;
+		for (int i=memberCount; i<members.length && members[i] != null; i++) {
+			members[i] = null; // don't hold on to items that have been removed
+		}
+		stale = false;
+		reordered = false;
+		rebuilds++;
+	}
+
+	/**
+	 * Finds the items that could be touching an item, in arena order. Items the lists were built for get
+	 * their list, anything else, such as a bullet, is looked up in the grid.
+	 * @param item Item being checked.
+	 * @param out List the items are added to.
+	 */
+	public void candidates(ArenaItem item, List<ArenaItem> out) {
+		int index = item.getNeighbourIndex();
+		if (index >= 0) {
+			for (int i=start[index]; i<start[index+1]; i++) {
+				if (neighbours[i].getSlot(SlotList.ALL) >= 0) { // skip items removed since the lists were built
+					out.add(neighbours[i]);
+				}
+			}
+			if (reordered) {
+				out.sort(ARENA_ORDER);
+			}
+			return;
+		}
+		nearby.clear();
+		double reach = item.getRadius() + skin/2; // items in the grid may have moved up to half the skin
+		grid.query(item.getX() - reach, item.getY() - reach, item.getX() + reach, item.getY() + reach, nearby);
+		nearby.sort(ARENA_ORDER);
+		for (int i=0; i<nearby.size(); i++) {
+			if (nearby.get(i) != item && nearby.get(i).getSlot(SlotList.ALL) >= 0) {
+				out.add(nearby.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Lets the lists know an item has been removed from the arena. It is skipped from then on, so the lists
+	 * don't need rebuilding, but the arena's order has changed.
+	 * @param item Item removed.
+	 */
+	public void itemRemoved(ArenaItem item) {
+		item.setNeighbourIndex(-1);
+		reordered = true;
+	}
+
+	/**
+	 * Lets the lists know an item has grown or been moved during a tick, such as a hungry robot eating,
+	 * marking them out of date if it could now touch items that aren't its neighbours.
+	 * @param item Item that has changed.
+	 */
+	public void itemChanged(ArenaItem item) {
+		int index = item.getNeighbourIndex();
+		if (index >= 0 && change(index) + tickStep > skin/2) {
+			stale = true;
+		}
+	}
+
+	/**
+	 * Marks the lists as out of date, such as when an item has been added.
+	 */
+	public void markStale() {
+		stale = true;
+	}
+
+	/**
+	 * Checks if the lists need rebuilding before they can be used.
+	 * @return If the lists are out of date.
+	 */
+	public boolean isStale() {
+		return stale;
+	}
+
+	/**
+	 * Getter - Provides how many times the lists have been built, used to check the skin is large enough.
+	 * @return Number of rebuilds.
+	 */
+	public int getRebuilds() {
+		return rebuilds;
+	}
+
+	/**
+	 * Works out how far an item has moved plus how much it has grown since the lists were built.
+	 */
+	private double change(int index) {
+		ArenaItem item = members[index];
+		return Math.hypot(item.getX() - builtX[index], item.getY() - builtY[index]) + (item.getRadius() - builtRadius[index]);
+	}
+}
@@ -32,6 +32,15 @@ public class Obstacle extends ArenaItem{
 		mc.showCircle(getX(), getY(), getRadius(), getColour());
 	}
 	
+	/**
+	 * Obstacles never move by themselves, so they are kept on the background layer.
+	 * @return True, obstacles are static.
+	 */
+	@Override
+	public boolean isStatic() {
+		return true;
+	}
+	
 	/**
 	 * Provides essential obstacle information in string form.
 	 */
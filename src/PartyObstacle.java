@@ -9,7 +9,7 @@ package RobotProjectGUI;
  */
 public class PartyObstacle extends Obstacle{
 	private int colourIter; // iterator for identifying which colour to display
-	private int cooldownTimer; // its own cooldown - time between colour changes
+	static final int CYCLE_PERIOD = 100; // ticks between colour changes
 	
 	/**
 	 * Constructor for PartyObstacle, used when loading from file
@@ -32,15 +32,33 @@ public class PartyObstacle extends Obstacle{
 	}
 	
 	/**
-	 * Draws object onto canvas, colour alternating every 100 iterations.
+	 * Starts cycling colours once the obstacle is in an arena, changing on the next tick.
 	 */
 	@Override
-	public void drawObject(MyCanvas mc){
-		cooldownTimer--;
-		if (cooldownTimer <= 0) {
+	void setTimerWheel(TimerWheel wheel) {
+		super.setTimerWheel(wheel);
+		schedule(COLOUR_CHANGE, 1);
+	}
+	
+	/**
+	 * Moves on to the next colour every 100 ticks. Done by a timer rather than when drawn, so the
+	 * obstacle can stay on the static layer and only its own area is redrawn when it changes.
+	 */
+	@Override
+	protected void onTimer(int kind) {
+		if (kind == COLOUR_CHANGE) {
 			setColour(COLOURS[colourIter++%COLOURS.length]);
-			cooldownTimer = 100;
+			schedule(COLOUR_CHANGE, CYCLE_PERIOD);
+		} else {
+			super.onTimer(kind);
 		}
+	}
+	
+	/**
+	 * Draws object onto canvas in its current colour.
+	 */
+	@Override
+	public void drawObject(MyCanvas mc){
 		mc.showCircle(getX(), getY(), getRadius(), getColour());
 	}
 	
@@ -0,0 +1,399 @@
+package RobotProjectGUI;
+
+import java.util.Arrays;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+
+/**
+ *
+ * @author dijan
+ * Class that draws the arena into an array of ARGB pixels instead of onto a JavaFX canvas, so frames
+ * can be rendered without a window, such as for checking frames in tests or exporting video.
+ * Only the shapes items are built from (circles, quads and lines) are rasterized, text and images are ignored.
+ */
+public class RasterCanvas extends MyCanvas {
+	static final int BACKGROUND = 0xFFFFFFFF; // default colour the raster is cleared to, white
+	private int[] pixels; // one ARGB int per pixel, row by row
+	private int width, height;
+	private int background = BACKGROUND;
+	private int clipMinX, clipMinY, clipMaxX, clipMaxY; // pixels outside these are not drawn, max is exclusive
+	private double[] px = new double[4], py = new double[4]; // pixel corners of the shape being filled, reused
+
+	/**
+	 * Constructor for a raster the same size as the world.
+	 * @param xcs Width of the world and raster.
+	 * @param ycs Height of the world and raster.
+	 */
+	public RasterCanvas(int xcs, int ycs) {
+		this(xcs, ycs, xcs, ycs);
+	}
+
+	/**
+	 * Constructor for a raster showing a world that can be larger than it, through the camera.
+	 * @param vw Width of the raster in pixels.
+	 * @param vh Height of the raster in pixels.
+	 * @param xcs Width of the world.
+	 * @param ycs Height of the world.
+	 */
+	public RasterCanvas(int vw, int vh, int xcs, int ycs) {
+		super((GraphicsContext) null, xcs, ycs);
+		setViewSize(vw, vh);
+		width = vw;
+		height = vh;
+		pixels = new int[vw*vh];
+		resetClip();
+		clearCanvas();
+	}
+
+	/**
+	 * Converts a colour character into the ARGB value drawn into the raster, matching colFromChar.
+	 * @param c Colour character.
+	 * @return ARGB value of the colour.
+	 */
+	static int argbFromChar(char c) {
+		switch (c) {
+		case 'y' :	return 0xFFFFFF00;
+		case 'w' :	return 0xFFFFFFFF;
+		case 'r' :	return 0xFFFF0000;
+		case 'g' :	return 0xFF008000;
+		case 'b' :	return 0xFF0000FF;
+		case 'o' :	return 0xFFFFA500;
+		default :	return 0xFF000000;
+		}
+	}
+
+	/**
+	 * Fills the whole raster with the background colour.
+	 */
+	@Override
+	public void clearCanvas() {
+		Arrays.fill(pixels, background);
+	}
+
+	/**
+	 * Sets the colour the raster is cleared to.
+	 * @param argb Background colour as ARGB.
+	 */
+	public void setBackground(int argb) {
+		background = argb;
+	}
+
+	/**
+	 * Clears the dirty regions and limits drawing to the rectangle around all of them, until endRegionRedraw is called.
+	 * @param regions Regions that need redrawing.
+	 */
+	@Override
+	public void beginRegionRedraw(DirtyRegions regions) {
+		if (regions.isEmpty()) {
+			clipMinX = clipMinY = clipMaxX = clipMaxY = 0; // nothing to draw
+			return;
+		}
+		int minX = width, minY = height, maxX = 0, maxY = 0;
+		for (int i=0; i<regions.size(); i++) {
+			int x0 = Math.max(0, (int) Math.floor(toPixelX(regions.get(i, 0))));
+			int y0 = Math.max(0, (int) Math.floor(toPixelY(regions.get(i, 1))));
+			int x1 = Math.min(width, (int) Math.ceil(toPixelX(regions.get(i, 2))));
+			int y1 = Math.min(height, (int) Math.ceil(toPixelY(regions.get(i, 3))));
+			for (int y=y0; y<y1; y++) {
+				if (x1 > x0) {
+					Arrays.fill(pixels, y*width + x0, y*width + x1, background);
+				}
+			}
+			minX = Math.min(minX, x0);
+			minY = Math.min(minY, y0);
+			maxX = Math.max(maxX, x1);
+			maxY = Math.max(maxY, y1);
+		}
+		clipMinX = minX;
+		clipMinY = minY;
+		clipMaxX = Math.max(minX, maxX);
+		clipMaxY = Math.max(minY, maxY);
+	}
+
+	/**
+	 * Removes the limit set by beginRegionRedraw.
+	 */
+	@Override
+	public void endRegionRedraw() {
+		resetClip();
+	}
+
+	/**
+	 * Lets drawing reach every pixel again.
+	 */
+	private void resetClip() {
+		clipMinX = 0;
+		clipMinY = 0;
+		clipMaxX = width;
+		clipMaxY = height;
+	}
+
+	/**
+	 * Sprites need a JavaFX canvas to render, so robots are always drawn from shapes.
+	 * @param useSprites Ignored.
+	 */
+	@Override
+	public void setUseSprites(boolean useSprites) {
+	}
+
+	/**
+	 * Fills a circle, a pixel is filled if its centre is inside the circle.
+	 * @param x Circle's x position.
+	 * @param y Circle's y position.
+	 * @param rad Circle's radius.
+	 * @param col Circle's colour.
+	 */
+	@Override
+	protected void fillCircle(double x, double y, double rad, char col) {
+		int argb = argbFromChar(col);
+		double cx = toPixelX(x);
+		double cy = toPixelY(y);
+		double r = rad * getZoom();
+		int y0 = Math.max(clipMinY, (int) Math.floor(cy - r));
+		int y1 = Math.min(clipMaxY - 1, (int) Math.ceil(cy + r));
+		for (int py=y0; py<=y1; py++) {
+			double dy = py + 0.5 - cy;
+			if (dy*dy > r*r) continue;
+			double half = Math.sqrt(r*r - dy*dy);
+			fillSpan(py, (int) Math.ceil(cx - half - 0.5), (int) Math.floor(cx + half - 0.5), argb);
+		}
+	}
+
+	/**
+	 * Fills a convex four sided shape, one row at a time between where the row crosses its edges.
+	 * @param col Shape's colour.
+	 * @param corners x1, y1, x2, y2, x3, y3, x4, y4 of the shape, in drawing order.
+	 */
+	@Override
+	protected void fillQuad(char col, double[] corners) {
+		int argb = argbFromChar(col);
+		double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		for (int i=0; i<4; i++) {
+			px[i] = toPixelX(corners[i*2]);
+			py[i] = toPixelY(corners[i*2+1]);
+			minY = Math.min(minY, py[i]);
+			maxY = Math.max(maxY, py[i]);
+		}
+		int y0 = Math.max(clipMinY, (int) Math.floor(minY));
+		int y1 = Math.min(clipMaxY - 1, (int) Math.ceil(maxY));
+		for (int row=y0; row<=y1; row++) {
+			double sy = row + 0.5; // sample through the middle of the row
+			double left = Double.MAX_VALUE, right = -Double.MAX_VALUE;
+			for (int i=0; i<4; i++) {
+				int j = (i + 1) % 4;
+				if ((py[i] <= sy && py[j] > sy) || (py[j] <= sy && py[i] > sy)) { // edge crosses this row
+					double ex = px[i] + (sy - py[i]) * (px[j] - px[i]) / (py[j] - py[i]);
+					left = Math.min(left, ex);
+					right = Math.max(right, ex);
+				}
+			}
+			if (left <= right) {
+				fillSpan(row, (int) Math.ceil(left - 0.5), (int) Math.floor(right - 0.5), argb);
+			}
+		}
+	}
+
+	/**
+	 * Draws a black line one pixel wide.
+	 * @param x1 Start x position.
+	 * @param y1 Start y position.
+	 * @param x2 End x position.
+	 * @param y2 End y position.
+	 */
+	@Override
+	protected void drawLine(double x1, double y1, double x2, double y2) {
+		strokeLine(x1, y1, x2, y2, 0xFF000000);
+	}
+
+	/**
+	 * Draws a line with Bresenham's algorithm.
+	 * @param x1 Start x position.
+	 * @param y1 Start y position.
+	 * @param x2 End x position.
+	 * @param y2 End y position.
+	 * @param argb Line's colour.
+	 */
+	private void strokeLine(double x1, double y1, double x2, double y2, int argb) {
+		int x = (int) Math.floor(toPixelX(x1));
+		int y = (int) Math.floor(toPixelY(y1));
+		int endX = (int) Math.floor(toPixelX(x2));
+		int endY = (int) Math.floor(toPixelY(y2));
+		int dx = Math.abs(endX - x), stepX = x < endX ? 1 : -1;
+		int dy = -Math.abs(endY - y), stepY = y < endY ? 1 : -1;
+		int error = dx + dy;
+		while (true) {
+			if (x >= clipMinX && x < clipMaxX && y >= clipMinY && y < clipMaxY) {
+				pixels[y*width + x] = argb;
+			}
+			if (x == endX && y == endY) break;
+			int e2 = 2 * error;
+			if (e2 >= dy) {
+				error += dy;
+				x += stepX;
+			}
+			if (e2 <= dx) {
+				error += dx;
+				y += stepY;
+			}
+		}
+	}
+
+	/**
+	 * Fills part of a row, keeping within the clip.
+	 * @param row Row of the raster.
+	 * @param x0 First pixel filled.
+	 * @param x1 Last pixel filled.
+	 * @param argb Colour filled with.
+	 */
+	private void fillSpan(int row, int x0, int x1, int argb) {
+		x0 = Math.max(x0, clipMinX);
+		x1 = Math.min(x1, clipMaxX - 1);
+		if (x0 <= x1) {
+			Arrays.fill(pixels, row*width + x0, row*width + x1 + 1, argb);
+		}
+	}
+
+	/**
+	 * Shows how many items are in each cell of a grid, blending more orange into cells with more items.
+	 * @param counts Number of items in each cell, row by row.
+	 * @param columns Number of columns in the grid.
+	 * @param rows Number of rows in the grid.
+	 * @param cellSize Width and height of each cell.
+	 * @param originX x position of the grid's left edge.
+	 * @param originY y position of the grid's top edge.
+	 */
+	@Override
+	public void showHeatmap(int[] counts, int columns, int rows, double cellSize, double originX, double originY) {
+		int shades = 8;
+		int max = 1;
+		for (int i=0; i<columns*rows; i++) {
+			max = Math.max(max, counts[i]);
+		}
+		for (int i=0; i<columns*rows; i++) {
+			if (counts[i] == 0) continue;
+			int shade = Math.min(shades - 1, counts[i] * shades / (max + 1));
+			int alpha = 255 * (shade + 1) / shades;
+			double cellX = originX + (i % columns) * cellSize;
+			double cellY = originY + (i / columns) * cellSize;
+			int x0 = Math.max(clipMinX, (int) Math.round(toPixelX(cellX)));
+			int y0 = Math.max(clipMinY, (int) Math.round(toPixelY(cellY)));
+			int x1 = Math.min(clipMaxX, (int) Math.round(toPixelX(cellX + cellSize)));
+			int y1 = Math.min(clipMaxY, (int) Math.round(toPixelY(cellY + cellSize)));
+			for (int y=y0; y<y1; y++) {
+				for (int x=x0; x<x1; x++) {
+					pixels[y*width + x] = blend(pixels[y*width + x], 0xFFFF5000, alpha);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Mixes a colour over another.
+	 * @param under Colour already in the raster.
+	 * @param over Colour drawn on top.
+	 * @param alpha How much of the top colour shows, 0 to 255.
+	 * @return Mixed colour, fully opaque.
+	 */
+	private static int blend(int under, int over, int alpha) {
+		int r = (((over >> 16) & 0xff) * alpha + ((under >> 16) & 0xff) * (255 - alpha)) / 255;
+		int g = (((over >> 8) & 0xff) * alpha + ((under >> 8) & 0xff) * (255 - alpha)) / 255;
+		int b = ((over & 0xff) * alpha + (under & 0xff) * (255 - alpha)) / 255;
+		return 0xFF000000 | (r << 16) | (g << 8) | b;
+	}
+
+	/**
+	 * Outlines an item to show it is selected, drawn as a square around it.
+	 * @param x Item's x position.
+	 * @param y Item's y position.
+	 * @param rad Radius of the outline.
+	 */
+	@Override
+	public void showSelection(double x, double y, double rad) {
+		outline(x - rad, y - rad, x + rad, y + rad, 0xFF1E90FF);
+	}
+
+	/**
+	 * Outlines each of the regions, used for debugging what is being redrawn.
+	 * @param regions Regions to outline.
+	 */
+	@Override
+	public void showRegions(DirtyRegions regions) {
+		for (int i=0; i<regions.size(); i++) {
+			outline(regions.get(i, 0), regions.get(i, 1), regions.get(i, 2), regions.get(i, 3), 0xFFFF00FF);
+		}
+	}
+
+	/**
+	 * Draws the outline of a rectangle.
+	 */
+	private void outline(double minX, double minY, double maxX, double maxY, int argb) {
+		strokeLine(minX, minY, maxX, minY, argb);
+		strokeLine(maxX, minY, maxX, maxY, argb);
+		strokeLine(maxX, maxY, minX, maxY, argb);
+		strokeLine(minX, maxY, minX, minY, argb);
+	}
+
+	/**
+	 * Images are not drawn into the raster.
+	 */
+	@Override
+	public void drawImage(Image i, double x, double y, double sz) {
+	}
+
+	/**
+	 * Text is not drawn into the raster.
+	 */
+	@Override
+	public void showText(double x, double y, String s) {
+	}
+
+	/**
+	 * Text is not drawn into the raster.
+	 */
+	@Override
+	public void showPanel(String[] lines) {
+	}
+
+	/**
+	 * Converts a world x position into a raster column, as the camera sees it.
+	 * @param x World x position.
+	 * @return Column, not rounded.
+	 */
+	private double toPixelX(double x) {
+		return (x - getViewMinX()) * getZoom();
+	}
+
+	/**
+	 * Converts a world y position into a raster row, as the camera sees it.
+	 * @param y World y position.
+	 * @return Row, not rounded.
+	 */
+	private double toPixelY(double y) {
+		return (y - getViewMinY()) * getZoom();
+	}
+
+	/**
+	 * Getter - Provides the pixels of the raster, row by row. The array is drawn into, not copied.
+	 * @return ARGB value of every pixel.
+	 */
+	public int[] getPixels() {
+		return pixels;
+	}
+
+	/**
+	 * Getter - Provides the width of the raster.
+	 * @return Width in pixels.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Getter - Provides the height of the raster.
+	 * @return Height in pixels.
+	 */
+	public int getHeight() {
+		return height;
+	}
+}
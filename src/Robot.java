@@ -16,7 +16,8 @@ public class Robot extends ArenaItem{
     protected double robotWidth; // used for checking boundaries
     protected double robotHeight;
     protected static int COOLDOWN_PERIOD = 3; // collide cooldown reset length
-    protected int collideCooldown; // cooldown after colliding with other game object
+    static final double PARTY_SPEED = 2; // speed while in party mode
+    private double drawnAngle; // angle the robot was last drawn at
 
 	
 	/**
@@ -44,7 +45,7 @@ public class Robot extends ArenaItem{
 	 */
 	Robot(MyCanvas mc, RobotArena myArena, char colour){
 		super(10, colour, mc, myArena); // radius 10, ball is blue
-		random = new Random();
+		random = myArena.getRandom(); // seeded by the arena, so runs can be repeated
 		angle = random.nextInt(360);
 		speed = 1; // default speed
 		width = 20;
@@ -62,9 +63,6 @@ public class Robot extends ArenaItem{
 	public void drawObject(MyCanvas mc){
 		char robotColour = getIsParty() ? partyMode() : 'b';
 		mc.showRobot(getX(), getY(), height, width, getRadius(), angle, robotColour);
-		if (getIsParty()) {
-			setSpeed(2); // adjust speed, needs to be fixed
-		}
 	}
 	
 	/**
@@ -74,59 +72,92 @@ public class Robot extends ArenaItem{
 	 * @param isCollision Needed for checking if it is colliding with another item.
 	 */
 	public void updatePosition(MyCanvas mc, boolean isCollision) {
-		collideCooldown--;
         double newX = (getX() + (Math.cos(Math.toRadians(angle)))*speed);
         double newY = (getY() + (Math.sin(Math.toRadians(angle)))*speed);
         
         // whichDirection is left, !whichDirection is right
-        if (isValidPosition(newX, newY, mc) && !isCollision || collideCooldown > 0) {
+        if (isValidPosition(newX, newY, mc) && !isCollision || isCoolingDown() && !isBlockedByWall(newX, newY, robotWidth)) { // cooling down still stops at walls
         	setPosition(newX, newY);
         } else if (!isValidPosition(newX, newY, mc) && whichDirection(newX, newY, mc)) {
             // If the new position is outside the canvas, change direction
-            angle -= 90;
+            setAngle(angle - 90);
         } else if (!isValidPosition(newX, newY, mc) && !whichDirection(newX, newY, mc)) {
-        	angle += 90;
-        } else if (isCollision && collideCooldown <= 0) {
-        	angle += 90;
-        	collideCooldown = COOLDOWN_PERIOD;
+        	setAngle(angle + 90);
+        } else if (isCollision && !isCoolingDown()) {
+        	setAngle(angle + 90);
+        	startCooldown();
         }
 	}
 	
     /**
-     * Party mode, where objects will move faster and have a rainbow colour for a few seconds
-     * @return Next colour.
+     * Party mode, where robots move faster and have a rainbow colour for a few seconds.
+     * The speed is set once when party mode is turned on or off, rather than every time the robot is drawn.
      */
 	@Override
-    public char partyMode() {
-		// should've been an ArenaItem method, but had to fix speed...
-    	colourCooldown--; // time between colour changes
-    	partyCooldownLength--; // party mode length
-    	if (colourCooldown <= 0) { // handles how fast the colours change
-    		currentColourIndex = (currentColourIndex + 1) % COLOURS.length;
-    		colourCooldown = COLOUR_COOLDOWN_PERIOD;
-    	} else if (partyCooldownLength <= 0) {
-    		setParty(); // turns off party when finished
-    		setSpeed(1);
-    	}
-    	return COLOURS[currentColourIndex];
+    public void setParty() {
+		super.setParty();
+		setSpeed(getIsParty() ? PARTY_SPEED : 1);
     }
 	
+	/**
+	 * Stops the robot turning again on collisions for a few ticks, so it can move away after rotating.
+	 */
+	protected void startCooldown() {
+		schedule(COOLDOWN_END, COOLDOWN_PERIOD);
+	}
+	
+	/**
+	 * Checks if the robot has recently turned from a collision.
+	 * @return If the collision cooldown is still running.
+	 */
+	protected boolean isCoolingDown() {
+		return isTimerScheduled(COOLDOWN_END);
+	}
+	
 	/**
 	 * Similar to ArenaItem's method, except takes the robot's width/height into
-	 * consideration.
+	 * consideration. Only the walls near the robot are checked.
 	 * @param newX The x position it wants to move to.
 	 * @param newY The y position it wants to move to.
 	 * @param mc Canvas needed to check if it is in the arena's bounds.
-	 * @return If it is within the arena's bounds.
+	 * @return If it is within the arena's bounds and not moving into a wall.
 	 */
 	@Override
     public boolean isValidPosition(double newX, double newY, MyCanvas mc) {
         double canvasWidth = mc.getXCanvasSize();
         double canvasHeight = mc.getYCanvasSize();
 
-        return newX - robotWidth  >= 0 && newX + robotWidth <= canvasWidth && newY - robotHeight >= 0 && newY + robotHeight <= canvasHeight;
+        return newX - robotWidth  >= 0 && newX + robotWidth <= canvasWidth && newY - robotHeight >= 0 && newY + robotHeight <= canvasHeight
+        		&& !isBlockedByWall(newX, newY, robotWidth);
     }
 	
+	/**
+	 * Robot reaches out to the furthest corner of its wheels.
+	 * @return Half the width of the square the robot is drawn in.
+	 */
+	@Override
+	protected double getDrawExtent() {
+		return Math.hypot(getRadius(), Math.max(getRadius(), width - getRadius()));
+	}
+	
+	/**
+	 * Similar to ArenaItem's method, except turning on the spot also needs a redraw.
+	 * @return If the robot needs redrawing.
+	 */
+	@Override
+	public boolean hasChangedSinceDrawn() {
+		return super.hasChangedSinceDrawn() || angle != drawnAngle;
+	}
+	
+	/**
+	 * Remembers where and at what angle the robot has just been drawn.
+	 */
+	@Override
+	public void markDrawn() {
+		super.markDrawn();
+		drawnAngle = angle;
+	}
+	
 	/**
 	 * Allows for the robot to change size taking into consideration its wheel/body proportions.
 	 * @param newRadius The new size the robot is turning to, needed to check proportions.
@@ -234,6 +265,7 @@ public class Robot extends ArenaItem{
      */
     public void setAngle(double _angle) {
     	angle = _angle;
+    	statusChanged();
     }
     
     /**
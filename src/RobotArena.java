@@ -1,6 +1,13 @@
 package RobotProjectGUI;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Predicate;
 
 /**
  * 
@@ -8,38 +15,316 @@ import java.util.ArrayList;
  * Class that handles all ArenaItem objects in an array list.
  */
 public class RobotArena {
-	private ArrayList<ArenaItem> robotArena; // represents arena that all objects will go in
+	private SlotList<ArenaItem> robotArena; // represents arena that all objects will go in, except bullets
+	private BulletPool bullets = new BulletPool(); // bullets in flight, ticked separately from everything else
+	private ItemRegistry registry = new ItemRegistry(); // the same items sorted by type
+	private ItemMap itemsByID = new ItemMap(); // every item and bullet, found by its ID
+	private int nextID; // ID given to the next item added
+	private TimerWheel timers = new TimerWheel(); // party mode, colour changes and cooldowns of every item
+	public static final int COLLIDE_ALL = 0; // collisions are checked against every item
+	public static final int COLLIDE_NEIGHBOURS = 1; // collisions are checked against each item's neighbour list
+	private int collisionMode = COLLIDE_ALL;
+	private NeighbourList neighbourList; // created the first time neighbour mode is used, as it needs the arena's size
+	private ArrayList<ArenaItem> collisionCandidates = new ArrayList<>(); // items that could be touching, reused each check
+	private StaticBVH staticTree = new StaticBVH(); // items that never move, checked separately from moving ones
+	private StaticNeighbours staticNear = new StaticNeighbours(StaticNeighbours.DEFAULT_SKIN); // obstacles near each robot, kept while it stays close
+	private WallTree walls = new WallTree(); // line walls, such as a maze, that robots can't move through
+	private ArrayList<Line> visibleWalls = new ArrayList<>(); // walls being redrawn this frame
+	private ContactGraph contacts = new ContactGraph(); // groups of touching items, found once at the start of each tick
+	private EatBatch eating = new EatBatch(); // hungry robots' meals, found at the start of each tick and eaten once every robot has moved
+	private int huntInterval; // ticks between hungry robots looking for prey, 0 when they don't hunt
+	private ArrayList<ArenaItem> preyFound = new ArrayList<>(); // reused while finding each hunter's prey
+	private boolean inTick; // if updateSystem is running, robots are then only checked against their contacts
+	private static final double SWEEP_MARGIN = 4; // extra distance searched along a bullet's path, for items that grew after the grid was built
+	private double bulletSpeed = Bullet.DEFAULT_SPEED; // speed new bullets are fired at
+	private ArrayList<Bullet> bulletsThisTick = new ArrayList<>(); // bullets in flight at the start of updateBullets
+	private SpatialGrid bulletGrid; // those bullets sorted by position, so bullets can hit each other
+	private double bulletReach; // furthest a bullet can have moved from its cell in bulletGrid
+	private static final int MAX_DIRTY_REGIONS = 64; // more regions than this and the whole canvas is redrawn
+	private static final double MAX_DIRTY_FRACTION = 0.5; // fraction of the canvas that can be dirty before it is all redrawn
+	private DirtyRegions dirtyRegions = new DirtyRegions(); // parts of the dynamic layer that need redrawing
+	private DirtyRegions staticRegions = new DirtyRegions(); // parts of the static layer that need redrawing
+	private DirtyRegions lastRegions = new DirtyRegions(); // everything redrawn last frame, shown by the debug overlay
+	private boolean fullRedraw = true; // if the whole dynamic layer needs redrawing
+	private boolean staticFullRedraw = true; // if the whole static layer needs redrawing
+	private boolean heatmapShown = false; // if the dynamic layer currently shows a heatmap instead of items
+	private int[] heatmapCounts = new int[0]; // items in each heatmap cell, reused each frame
+	private static final double VIEW_MARGIN = 32; // items that moved off screen since the last frame still need clearing
+	private SpatialGrid grid; // moving items sorted by position, obstacles are only in staticTree
+	private boolean gridStale = true; // if items have moved since the grid was built
+	private ArrayList<ArenaItem> visibleItems = new ArrayList<>(); // items on screen this frame
+	private Random random = new Random(); // used to place new items, seeded for repeatable runs
+	private TickProfiler profiler = new TickProfiler(); // times each phase of a tick
+	private SimulationMetrics metrics = new SimulationMetrics(); // counts what happens over a run
+	private int pairsTested, pairHits; // collision checks made and found in the current tick
+	private int lastPairsTested, lastPairHits; // collision checks made and found in the last tick
 	/**
 	 * Default constructor, creates an array list which will contain ArenaItem type objects.
 	 */
 	RobotArena(){
-		robotArena = new ArrayList<>();
+		robotArena = new SlotList<>(SlotList.ALL);
+	}
+	
+	/**
+	 * Constructor for an arena where new items are placed the same way every run.
+	 * @param seed Seed of the random numbers used to place new items.
+	 */
+	RobotArena(long seed){
+		this();
+		random = new Random(seed);
+	}
+	
+	/**
+	 * Getter - Provides the random numbers used to place new items.
+	 * @return The arena's random number generator.
+	 */
+	public Random getRandom() {
+		return random;
 	}
 	
 	/**
 	 * Checks the object against all other objects in the arena to make sure there are no collisions.
-	 * If the object is touching a party infected robot/party obstacle, it also infects it.
+	 * The first item touched, in arena order, is the one collided with. During a tick, robots are only checked
+	 * against the items findContacts found close to them, as nothing grows or is removed until every robot has
+	 * moved. Outside a tick, such as when placing or steering items, obstacles are found in the obstacle tree
+	 * and every moving item is checked.
 	 * If one of the objects are a bullet, they are both destroyed.
 	 * @param item1 item in the arena
 	 * @param mc Canvas needed when checking for a hungry robot, as change in size would require to see if it is in arena boundaries.
 	 * @return If a collision has occurred.
 	 */
 	public boolean anyCollisions(ArenaItem item1, MyCanvas mc) {
-        // Iterate through all pairs of arena items
-        for (int i = 0; i < robotArena.size(); i++) {
-            ArenaItem item2 = robotArena.get(i);
-            if (item1 != item2 && item1.isCollision(item2)) { // ensure it isnt comparing itself and collision is made
-            	if ((item2 instanceof PartyObstacle || item2.getIsParty()) && !item1.getIsParty()) { // checks to see if it's infected/hitting a party obstacle
-            		item1.setParty();
-            	}
-            	checkHungryRobot(item1, item2, mc); // checks to see if they're hungry robots
-            	checkIfBullet(item1, item2); // checks if either one is a bullet.
-                return true;
+		if (inTick && item1 instanceof Robot) { // only what was close at the start of the tick can be touching
+			collisionCandidates.clear();
+			contacts.candidates(item1.getSlot(SlotList.ALL), collisionCandidates);
+			for (int i=0; i<collisionCandidates.size(); i++) {
+				pairsTested++;
+				if (item1.isCollision(collisionCandidates.get(i))) {
+					collide(item1, collisionCandidates.get(i), mc);
+					return true;
+				}
+			}
+			return false;
+		}
+		staticTree.update(registry.getObstacles()); // obstacles are found in their own tree
+		ArenaItem hit = staticTree.firstHit(item1);
+		pairsTested += staticTree.getLastTests();
+		int hitSlot = hit == null ? Integer.MAX_VALUE : hit.getSlot(SlotList.ALL);
+        // Iterate through the moving items, until past the obstacle hit as the first item in the arena is used
+        List<ArenaItem> candidates = robotArena; // each item's index is its slot
+        for (int i = 0; i < candidates.size(); i++) {
+            ArenaItem item2 = candidates.get(i);
+            if (i > hitSlot) break;
+            if (item1 == item2 || item2.isStatic()) continue; // ensure it isnt comparing itself
+            pairsTested++;
+            if (item1.isCollision(item2)) { // collision is made
+            	hit = item2;
+            	break;
             }
         }
+        if (hit != null) {
+        	collide(item1, hit, mc);
+        	return true;
+        }
         return false;
 	}
 	
+	/**
+	 * Handles two items touching. Bullets are destroyed along with what they hit.
+	 * @param item1 Item that was moving.
+	 * @param item2 Item it touched.
+	 * @param mc Canvas the items are in.
+	 */
+	private void collide(ArenaItem item1, ArenaItem item2, MyCanvas mc) {
+		pairHits++; // party mode and eating are worked out by findContacts, for the whole tick at once
+		checkIfBullet(item1, item2); // checks if either one is a bullet.
+	}
+	
+	/**
+	 * Checks a bullet against everything along the path it will travel this tick, rather than only where it
+	 * ends up, so fast bullets can't pass through small items. The bullet is swept as a circle along its path
+	 * and the first item it would touch is hit, which can be another bullet. Candidates come from the spatial
+	 * grid of moving items, the obstacle tree and the grid of bullets, searching the box around the path.
+	 * @param bullet Bullet being moved.
+	 * @param index Spatial grid, built this tick. Items removed since are skipped.
+	 * @param mc Canvas needed when a hungry robot grows.
+	 * @return If the bullet hit something.
+	 */
+	private boolean sweepBullet(Bullet bullet, SpatialGrid index, MyCanvas mc) {
+		double startX = bullet.getX(), startY = bullet.getY();
+		double stepX = bullet.getStepX(), stepY = bullet.getStepY();
+		double reach = bullet.getRadius() + SWEEP_MARGIN;
+		double minX = Math.min(startX, startX + stepX) - reach, minY = Math.min(startY, startY + stepY) - reach;
+		double maxX = Math.max(startX, startX + stepX) + reach, maxY = Math.max(startY, startY + stepY) + reach;
+		collisionCandidates.clear();
+		index.query(minX, minY, maxX, maxY, collisionCandidates);
+		staticTree.query(minX, minY, maxX, maxY, collisionCandidates);
+		if (bulletsThisTick.size() > 1) { // bullets that moved before this one may be up to a step from their cell
+			bulletGrid.query(minX - bulletReach, minY - bulletReach, maxX + bulletReach, maxY + bulletReach, collisionCandidates);
+		}
+		ArenaItem first = null;
+		double firstTime = Double.MAX_VALUE; // fraction of the step at which the first hit happens
+		for (int i=0; i<collisionCandidates.size(); i++) {
+			ArenaItem item = collisionCandidates.get(i);
+			if (item == bullet || (item instanceof Bullet ? ((Bullet)item).getPoolIndex() < 0 : item.getSlot(SlotList.ALL) < 0)) {
+				continue; // destroyed earlier this tick
+			}
+			pairsTested++;
+			double time = sweptHitTime(startX, startY, stepX, stepY, item.getX(), item.getY(), bullet.getRadius() + item.getRadius());
+			if (time < firstTime || (time == firstTime && first != null && item.getSlot(SlotList.ALL) < first.getSlot(SlotList.ALL))) {
+				first = item; // ties go to the item first in the arena, as with anyCollisions
+				firstTime = time;
+			}
+		}
+		if (first == null) {
+			return false;
+		}
+		collide(bullet, first, mc);
+		return true;
+	}
+	
+	/**
+	 * Finds when a circle moving in a straight line first touches a still circle.
+	 * @param x Moving circle's starting x position.
+	 * @param y Moving circle's starting y position.
+	 * @param dx How far it moves across.
+	 * @param dy How far it moves down.
+	 * @param cx Still circle's x position.
+	 * @param cy Still circle's y position.
+	 * @param radii Both radii added together.
+	 * @return Fraction of the move, from 0 to 1, when they first touch, or Double.MAX_VALUE if they don't.
+	 */
+	static double sweptHitTime(double x, double y, double dx, double dy, double cx, double cy, double radii) {
+		double fx = x - cx, fy = y - cy;
+		double c = fx*fx + fy*fy - radii*radii;
+		if (c < 0) {
+			return 0; // already touching at the start
+		}
+		double a = dx*dx + dy*dy;
+		double b = 2*(fx*dx + fy*dy);
+		if (a == 0 || b >= 0) {
+			return Double.MAX_VALUE; // not moving, or moving away
+		}
+		double discriminant = b*b - 4*a*c;
+		if (discriminant <= 0) {
+			return Double.MAX_VALUE; // passes by without touching
+		}
+		double time = (-b - Math.sqrt(discriminant)) / (2*a);
+		return time <= 1 ? time : Double.MAX_VALUE;
+	}
+	
+	/**
+	 * Finds every pair of touching items once, from where the items are at the start of the tick, and groups
+	 * them with union-find. Party mode then spreads through each group in one pass: every robot in a group with
+	 * a party obstacle or a robot in party mode catches it, however long the chain and whatever order the robots
+	 * are in. Robots are only grouped with other robots and party obstacles, so plain obstacles don't pass it on.
+	 * Touching pairs with a hungry robot in them are kept as meals, eaten by resolveEating at the end of the tick.
+	 * Each pair is tested from one side only, and the pairs close enough to collide this tick are kept, so each
+	 * robot's collision check only looks at those. Nearby robots come from the neighbour lists in neighbour mode,
+	 * or the spatial grid of moving items otherwise, and obstacles from the obstacle tree in both.
+	 * @param mc Canvas giving the size of the arena.
+	 */
+	private void findContacts(MyCanvas mc) {
+		List<Robot> robots = registry.getRobots();
+		double maxStep = Robot.PARTY_SPEED; // robots catching party mode speed up
+		for (int i=0; i<robots.size(); i++) {
+			maxStep = Math.max(maxStep, Math.abs(robots.get(i).getSpeed()));
+		}
+		double margin = 2*maxStep; // two robots moving towards each other
+		boolean useNeighbours = collisionMode == COLLIDE_NEIGHBOURS; // the lists have every robot this close
+		SpatialGrid index = useNeighbours ? null : getGrid(mc);
+		staticTree.update(registry.getObstacles());
+		contacts.reset(robotArena.size());
+		eating.clear();
+		for (int i=0; i<robots.size(); i++) {
+			Robot robot = robots.get(i);
+			int slot = robot.getSlot(SlotList.ALL);
+			double reach = robot.getRadius() + margin;
+			collisionCandidates.clear();
+			if (useNeighbours) {
+				neighbourList.candidates(robot, collisionCandidates);
+			} else {
+				index.query(robot.getX() - reach, robot.getY() - reach, robot.getX() + reach, robot.getY() + reach, collisionCandidates);
+			}
+			staticNear.query(staticTree, robot, i, reach, collisionCandidates); // obstacles from the tree, only searched again once the robot has moved away
+			for (int j=0; j<collisionCandidates.size(); j++) {
+				ArenaItem other = collisionCandidates.get(j);
+				int otherSlot = other.getSlot(SlotList.ALL);
+				if (other == robot || (other instanceof Robot && otherSlot < slot)) {
+					continue; // pairs of robots are tested by the first of the two
+				}
+				pairsTested++;
+				double dx = robot.getX() - other.getX(), dy = robot.getY() - other.getY();
+				double distanceSquared = dx*dx + dy*dy;
+				double near = robot.getRadius() + other.getRadius() + margin;
+				if (distanceSquared >= near*near) {
+					continue;
+				}
+				contacts.addNear(slot, otherSlot);
+				if (robot.isCollision(other)) {
+					if (other instanceof Robot || other instanceof PartyObstacle) {
+						contacts.union(slot, otherSlot);
+					}
+					eating.add(robot, other); // only kept if one of them is hungry
+				}
+			}
+		}
+		contacts.finishNear(robotArena);
+		for (int i=0; i<robots.size(); i++) {
+			if (robots.get(i).getIsParty()) {
+				contacts.markParty(robots.get(i).getSlot(SlotList.ALL));
+			}
+		}
+		List<PartyObstacle> partySources = registry.getPartySources();
+		for (int i=0; i<partySources.size(); i++) {
+			contacts.markParty(partySources.get(i).getSlot(SlotList.ALL));
+		}
+		for (int i=0; i<robots.size(); i++) {
+			Robot robot = robots.get(i);
+			if (!robot.getIsParty() && contacts.hasParty(robot.getSlot(SlotList.ALL))) {
+				robot.setParty();
+				metrics.partyInfection();
+			}
+		}
+	}
+	
+	/**
+	 * Makes sure the neighbour lists are correct for this tick, rebuilding them if anything could have moved
+	 * too far since they were built.
+	 * @param mc Canvas giving the size of the arena.
+	 */
+	private void prepareNeighbours(MyCanvas mc) {
+		if (neighbourList == null) {
+			neighbourList = new NeighbourList(mc.getXCanvasSize(), mc.getYCanvasSize(), NeighbourList.DEFAULT_SKIN);
+		}
+		double maxStep = Robot.PARTY_SPEED; // furthest a robot moves in a tick, including robots about to catch party mode
+		List<Robot> robots = registry.getRobots();
+		for (int i=0; i<robots.size(); i++) {
+			maxStep = Math.max(maxStep, Math.abs(robots.get(i).getSpeed()));
+		}
+		neighbourList.prepare(robots, maxStep); // obstacles aren't in the lists, they have their own tree
+	}
+	
+	/**
+	 * Setter - Sets how collisions are found, checking every item or only each item's neighbours.
+	 * Both find the same collisions, neighbours is faster when there are many slow moving items.
+	 * @param mode COLLIDE_ALL or COLLIDE_NEIGHBOURS.
+	 */
+	public void setCollisionMode(int mode) {
+		collisionMode = mode;
+		if (neighbourList != null) {
+			neighbourList.markStale();
+		}
+	}
+	
+	/**
+	 * Getter - Provides how collisions are found.
+	 * @return COLLIDE_ALL or COLLIDE_NEIGHBOURS.
+	 */
+	public int getCollisionMode() {
+		return collisionMode;
+	}
+	
 	/**
 	 * checks to see what robot is at those particular coordinates
 	 * @param x Coordinate of the location being checked.
@@ -47,35 +332,188 @@ public class RobotArena {
 	 * @return Object on that position if it exists, otherwise null.
 	 */
 	public ArenaItem getArenaItemAt(double x, double y) {
-	    for (int i=0; i<robotArena.size(); i++) {
-	    	double upperboundX = robotArena.get(i).getX()+robotArena.get(i).getRadius();
-	    	double lowerboundX = robotArena.get(i).getX()-robotArena.get(i).getRadius();
-	    	double upperboundY = robotArena.get(i).getY()+robotArena.get(i).getRadius();
-	    	double lowerboundY = robotArena.get(i).getY()-robotArena.get(i).getRadius();
+		List<ArenaItem> candidates = robotArena;
+		if (grid != null && !gridStale) { // only look at items near the point
+			ArrayList<ArenaItem> near = new ArrayList<>();
+			grid.query(x, y, x, y, near);
+			staticTree.update(registry.getObstacles());
+			staticTree.query(x, y, x, y, near);
+			candidates = near;
+		}
+	    for (int i=0; i<candidates.size(); i++) {
+	    	double upperboundX = candidates.get(i).getX()+candidates.get(i).getRadius();
+	    	double lowerboundX = candidates.get(i).getX()-candidates.get(i).getRadius();
+	    	double upperboundY = candidates.get(i).getY()+candidates.get(i).getRadius();
+	    	double lowerboundY = candidates.get(i).getY()-candidates.get(i).getRadius();
 	        if (upperboundX >= x && lowerboundX <= x && upperboundY >= y && lowerboundY <= y) {
-	            return robotArena.get(i);
+	            return candidates.get(i);
 	        }
 	    }
 	    return null;
 	}
 	
+	/**
+	 * Makes sure the spatial grid of moving items is up to date, rebuilding it if anything has moved, been added
+	 * or removed. Obstacles never move, so they are left to the obstacle tree rather than put in again each time.
+	 * @param mc Canvas giving the size of the arena.
+	 * @return The up to date grid.
+	 */
+	private SpatialGrid getGrid(MyCanvas mc) {
+		if (grid == null) {
+			grid = new SpatialGrid(mc.getXCanvasSize(), mc.getYCanvasSize());
+			gridStale = true;
+		}
+		if (gridStale) {
+			grid.rebuild(registry.getRobots());
+			gridStale = false;
+		}
+		return grid;
+	}
+	
+	/**
+	 * Finds the items whose centres are closest to a point, closest first, looking only in the grid cells and
+	 * obstacle tree boxes around the point rather than at every item. Items the same distance away are given
+	 * in arena order. Bullets aren't included.
+	 * @param x Point's x position.
+	 * @param y Point's y position.
+	 * @param k Most items found.
+	 * @param maxDistance Furthest an item's centre can be.
+	 * @param filter Which items can be found, null for any.
+	 * @param mc Canvas giving the size of the arena.
+	 * @param out List the items are added to.
+	 */
+	public void findNearest(double x, double y, int k, double maxDistance, Predicate<ArenaItem> filter, MyCanvas mc, List<ArenaItem> out) {
+		int from = out.size();
+		getGrid(mc).nearest(x, y, k, maxDistance, filter, out);
+		int moving = out.size() - from;
+		staticTree.update(registry.getObstacles());
+		staticTree.nearest(x, y, k, maxDistance, filter, out);
+		if (moving > 0 && out.size() - from > moving) { // both found some, so the closest k of the two are kept
+			List<ArenaItem> found = out.subList(from, out.size());
+			found.sort(Comparator.comparingDouble((ArenaItem item) -> (item.getX() - x)*(item.getX() - x) + (item.getY() - y)*(item.getY() - y))
+					.thenComparingInt(item -> item.getSlot(SlotList.ALL)));
+			if (found.size() > k) {
+				found.subList(k, found.size()).clear();
+			}
+		}
+	}
+	
+	/**
+	 * Finds every item whose centre is within a distance of a point, looking only in the grid cells and obstacle
+	 * tree boxes around it. Bullets aren't included.
+	 * @param x Point's x position.
+	 * @param y Point's y position.
+	 * @param distance How close an item's centre has to be.
+	 * @param mc Canvas giving the size of the arena.
+	 * @param out List the items are added to.
+	 */
+	public void findWithin(double x, double y, double distance, MyCanvas mc, ArrayList<ArenaItem> out) {
+		getGrid(mc).within(x, y, distance, out);
+		staticTree.update(registry.getObstacles());
+		staticTree.within(x, y, distance, out);
+	}
+	
+	/**
+	 * Setter - Turns hunting on or off for every hungry robot, including ones added later.
+	 * @param interval Ticks between each hungry robot looking for prey, 0 to stop hunting.
+	 */
+	public void setHunting(int interval) {
+		huntInterval = Math.max(0, interval);
+		List<HungryRobot> hungry = registry.getHungryRobots();
+		for (int i=0; i<hungry.size(); i++) {
+			hungry.get(i).setHunting(huntInterval);
+		}
+	}
+	
+	/**
+	 * Getter - Provides how often hungry robots look for prey.
+	 * @return Ticks between looks, 0 when they don't hunt.
+	 */
+	public int getHuntInterval() {
+		return huntInterval;
+	}
+	
+	/**
+	 * Finds the closest prey of each hungry robot whose retarget timer has gone off. Done before any robot
+	 * moves, so every hunter looks at the arena as it was at the start of the tick.
+	 * @param mc Canvas giving the size of the arena.
+	 */
+	private void updateHunters(MyCanvas mc) {
+		List<HungryRobot> hungry = registry.getHungryRobots();
+		for (int i=0; i<hungry.size(); i++) {
+			HungryRobot hunter = hungry.get(i);
+			if (!hunter.wantsPrey()) {
+				continue;
+			}
+			preyFound.clear();
+			findNearest(hunter.getX(), hunter.getY(), 1, HungryRobot.HUNT_RANGE, hunter::isPrey, mc, preyFound);
+			hunter.setPrey(preyFound.isEmpty() ? null : preyFound.get(0));
+		}
+		preyFound.clear();
+	}
+	
+	/**
+	 * Lets the arena know items have been moved from outside, such as being dragged, so the spatial grid
+	 * is rebuilt and the obstacle tree refitted before they are next used.
+	 */
+	public void markMoved() {
+		gridStale = true;
+		staticTree.markMoved(); // boxes are refitted, the tree isn't rebuilt
+	}
+	
 	/**
 	 * Constantly updating positions of each object, taking into consideration collisions.
 	 * @param mc Canvas needed when updating its position, as it needs to check if it is in the arena's boundaries.
 	 */
 	public void updateSystem(MyCanvas mc) {
-		ArrayList<Bullet> destroyedBullets = new ArrayList<>(); // bullets that need to be destroyed after iteration
-		for (int i=0; i<robotArena.size(); i++) {
-			if (robotArena.get(i) instanceof Bullet) { // checks first to see if it's a bullet
-				if (((Bullet)robotArena.get(i)).getIsDestroyed()) { // if so, check if it's been destroyed (hit a wall)
-					destroyedBullets.add((Bullet)robotArena.get(i)); // adds to destroyed arraylist
-				}
-			}
-			if (robotArena.get(i) instanceof Robot) {
-				((Robot)robotArena.get(i)).updatePosition(mc, anyCollisions(robotArena.get(i),mc));
-			}
+		long updateStart = profiler.begin();
+		metrics.tickStarted();
+		TickEvent tick = new TickEvent();
+		tick.begin();
+		CollisionBatchEvent collisionBatch = new CollisionBatchEvent();
+		collisionBatch.begin();
+		pairsTested = 0;
+		pairHits = 0;
+		timers.advance(); // sets off any timers due this tick
+		inTick = true;
+		long contactStart = profiler.begin();
+		if (collisionMode == COLLIDE_NEIGHBOURS) {
+			prepareNeighbours(mc);
+		}
+		findContacts(mc);
+		profiler.add(TickProfiler.COLLISIONS, contactStart);
+		updateHunters(mc);
+		List<Robot> robots = registry.getRobots();
+		for (int i=0; i<robots.size(); i++) {
+			Robot robot = robots.get(i);
+			long collisionStart = profiler.begin();
+			boolean collided = anyCollisions(robot,mc);
+			profiler.add(TickProfiler.COLLISIONS, collisionStart);
+			robot.updatePosition(mc, collided);
+		}
+		resolveEating(mc); // after the moves, so no robot is removed while the list is being gone through
+		gridStale = true; // robots have moved
+		collisionBatch.end();
+		if (collisionBatch.shouldCommit()) {
+			collisionBatch.pairsTested = pairsTested;
+			collisionBatch.hits = pairHits;
+			collisionBatch.commit();
+		}
+		long bulletStart = profiler.begin();
+		updateBullets(mc);
+		profiler.end(TickProfiler.BULLETS, bulletStart);
+		inTick = false;
+		gridStale = true;
+		lastPairsTested = pairsTested;
+		lastPairHits = pairHits;
+		profiler.end(TickProfiler.UPDATE, updateStart);
+		profiler.endTick();
+		metrics.tickEnded(pairHits);
+		tick.end();
+		if (tick.shouldCommit()) {
+			tick.entityCount = robotArena.size() + bullets.size();
+			tick.commit();
 		}
-		destroyAllBullets(destroyedBullets); // destroys all the bullets
 	}
 	
 	/**
@@ -84,7 +522,23 @@ public class RobotArena {
 	 */
 	
 	public void addObject(ArenaItem object) {
+		object.setID(nextID++);
 		robotArena.add(object);
+		registry.add(object);
+		itemsByID.put(object.getID(), object);
+		object.setTimerWheel(timers);
+		object.setWalls(walls);
+		if (object instanceof HungryRobot && huntInterval > 0) {
+			((HungryRobot)object).setHunting(huntInterval);
+		}
+		gridStale = true;
+		if (object.isStatic()) {
+			staticTree.markStale();
+		}
+		if (neighbourList != null) {
+			neighbourList.markStale();
+		}
+		metrics.itemAdded(object);
 	}
 	
 	/**
@@ -92,17 +546,291 @@ public class RobotArena {
 	 * @param object The object that will be removed to the arena list.
 	 */
 	public void destroyObject(ArenaItem object) {
-		robotArena.remove(object);
+		if (object instanceof Bullet) {
+			if (bullets.release((Bullet)object)) {
+				itemsByID.remove(object.getID());
+				object.setTimerWheel(null);
+				object.setWalls(null);
+				metrics.itemRemoved(object);
+				object.addDrawnRegion(dirtyRegions); // where it was needs clearing
+			}
+			return;
+		}
+		if (robotArena.remove(object)) {
+			registry.remove(object);
+			itemsByID.remove(object.getID());
+			object.setTimerWheel(null);
+			object.setWalls(null);
+			gridStale = true;
+			if (object.isStatic()) {
+				staticTree.markStale();
+			}
+			if (neighbourList != null) {
+				neighbourList.itemRemoved(object);
+			}
+			metrics.itemRemoved(object);
+			object.addDrawnRegion(object.isStatic() ? staticRegions : dirtyRegions); // where it was needs clearing
+		}
 	}
 	
 	/**
-	 * Draws each object onto canvas
+	 * Draws each object onto canvas. Draw calls are batched so the canvas only changes colour
+	 * once per colour and shape, rather than once per object.
 	 * @param mc Canvas needed so each robot can be drawn on the canvas.
 	 */
 	public void drawSystem(MyCanvas mc) {
+		long drawStart = profiler.begin();
+		mc.beginBatch();
+		for (int i=0; i<walls.size(); i++) {
+			mc.showWall(walls.get(i));
+		}
 		for (int i=0; i<robotArena.size(); i++) {
 			robotArena.get(i).drawObject(mc);
 		}
+		for (int i=0; i<bullets.size(); i++) {
+			bullets.get(i).drawObject(mc);
+		}
+		mc.flushBatch();
+		profiler.end(TickProfiler.DRAW, drawStart);
+	}
+	
+	/**
+	 * Redraws only what has changed since the last frame. Static items are kept on their own layer,
+	 * so they are only redrawn when one is added, removed, moved or changes colour. On each layer, the old
+	 * and new areas of anything that moved, changed or was removed are cleared and redrawn. If too much
+	 * has changed, the whole layer is redrawn instead.
+	 * @param mc Canvas being drawn on.
+	 */
+	public void drawChanges(MyCanvas mc) {
+		long drawStart = profiler.begin();
+		boolean layered = mc.hasLayers(); // static items have their own layer
+		visibleItems.clear(); // only items on screen are drawn, obstacles first so they are under robots
+		staticTree.update(registry.getObstacles());
+		staticTree.query(mc.getViewMinX() - VIEW_MARGIN, mc.getViewMinY() - VIEW_MARGIN,
+				mc.getViewMaxX() + VIEW_MARGIN, mc.getViewMaxY() + VIEW_MARGIN, visibleItems);
+		getGrid(mc).query(mc.getViewMinX() - VIEW_MARGIN, mc.getViewMinY() - VIEW_MARGIN,
+				mc.getViewMaxX() + VIEW_MARGIN, mc.getViewMaxY() + VIEW_MARGIN, visibleItems);
+		for (int i=0; i<bullets.size(); i++) { // bullets aren't in the grid, but are few and small
+			Bullet bullet = bullets.get(i);
+			if (bullet.getX() >= mc.getViewMinX() - VIEW_MARGIN && bullet.getX() <= mc.getViewMaxX() + VIEW_MARGIN
+					&& bullet.getY() >= mc.getViewMinY() - VIEW_MARGIN && bullet.getY() <= mc.getViewMaxY() + VIEW_MARGIN) {
+				visibleItems.add(bullet);
+			}
+		}
+		int dynamicCount = 0;
+		for (int i=0; i<visibleItems.size(); i++) {
+			ArenaItem item = visibleItems.get(i);
+			if (!(layered && item.isStatic())) {
+				dynamicCount++;
+			}
+			if (item.isAnimated() || item.hasChangedSinceDrawn()) {
+				DirtyRegions regions = layered && item.isStatic() ? staticRegions : dirtyRegions;
+				item.addDrawnRegion(regions); // old area
+				item.addCurrentRegion(regions); // new area
+			}
+		}
+		
+		lastRegions.clear();
+		lastRegions.addAll(staticRegions);
+		lastRegions.addAll(dirtyRegions);
+		if (layered) {
+			redrawLayer(mc, MyCanvas.STATIC_LAYER, staticRegions, staticFullRedraw, true);
+		}
+		if (mc.shouldUseHeatmap(dynamicCount)) {
+			drawHeatmap(mc, layered); // too dense to see individual items
+			heatmapShown = true;
+		} else {
+			redrawLayer(mc, MyCanvas.DYNAMIC_LAYER, dirtyRegions, fullRedraw || heatmapShown, layered);
+			heatmapShown = false;
+		}
+		staticFullRedraw = false;
+		fullRedraw = false;
+		profiler.end(TickProfiler.DRAW, drawStart);
+	}
+	
+	/**
+	 * Redraws the items on screen for one layer, either all of it or just its dirty regions, then empties the regions.
+	 * @param mc Canvas being drawn on.
+	 * @param layer Layer being redrawn.
+	 * @param regions Parts of the layer that need redrawing.
+	 * @param full If the whole layer needs redrawing.
+	 * @param layered If the canvas has separate layers, otherwise every item is drawn on the one layer.
+	 */
+	private void redrawLayer(MyCanvas mc, int layer, DirtyRegions regions, boolean full, boolean layered) {
+		double viewArea = (mc.getViewMaxX() - mc.getViewMinX()) * (mc.getViewMaxY() - mc.getViewMinY());
+		boolean redrawAll = full || regions.size() > MAX_DIRTY_REGIONS || regions.area() > viewArea * MAX_DIRTY_FRACTION;
+		if (!redrawAll && regions.isEmpty()) {
+			return; // nothing has changed
+		}
+		mc.useLayer(layer);
+		if (redrawAll) {
+			mc.clearCanvas();
+		} else {
+			mc.beginRegionRedraw(regions);
+		}
+		mc.beginBatch();
+		if (!layered || layer == MyCanvas.STATIC_LAYER) { // walls never move, so they go under everything
+			drawWalls(mc, regions, redrawAll);
+		}
+		for (int i=0; i<visibleItems.size(); i++) {
+			ArenaItem item = visibleItems.get(i);
+			boolean onLayer = !layered || (layer == MyCanvas.STATIC_LAYER) == item.isStatic();
+			if (onLayer && (redrawAll || item.isInRegions(regions))) {
+				item.drawObject(mc);
+				item.markDrawn();
+			}
+		}
+		mc.flushBatch();
+		if (!redrawAll) {
+			mc.endRegionRedraw();
+		}
+		mc.useLayer(MyCanvas.DYNAMIC_LAYER);
+		regions.clear();
+	}
+	
+	/**
+	 * Draws the walls on screen, or only those in the regions being redrawn, found from the wall tree.
+	 * @param mc Canvas being drawn on.
+	 * @param regions Parts of the layer being redrawn.
+	 * @param redrawAll If the whole screen is being redrawn.
+	 */
+	private void drawWalls(MyCanvas mc, DirtyRegions regions, boolean redrawAll) {
+		if (walls.size() == 0) {
+			return;
+		}
+		visibleWalls.clear();
+		if (redrawAll) {
+			walls.query(mc.getViewMinX(), mc.getViewMinY(), mc.getViewMaxX(), mc.getViewMaxY(), visibleWalls);
+		} else {
+			for (int i=0; i<regions.size(); i++) { // a wall in more than one region is drawn more than once, which is harmless
+				walls.query(regions.get(i, 0), regions.get(i, 1), regions.get(i, 2), regions.get(i, 3), visibleWalls);
+			}
+		}
+		for (int i=0; i<visibleWalls.size(); i++) {
+			mc.showWall(visibleWalls.get(i));
+		}
+	}
+	
+	/**
+	 * Draws the moving items on screen as a heatmap of how many are in each part of the screen, used when
+	 * there are too many to draw individually. The number of draw calls depends only on the screen size.
+	 * @param mc Canvas being drawn on.
+	 * @param layered If static items have their own layer, in which case they are left out.
+	 */
+	private void drawHeatmap(MyCanvas mc, boolean layered) {
+		double cellSize = MyCanvas.HEATMAP_CELL / mc.getZoom(); // cells are a fixed size on screen
+		double originX = mc.getViewMinX();
+		double originY = mc.getViewMinY();
+		int columns = (int) Math.ceil((mc.getViewMaxX() - originX) / cellSize);
+		int rows = (int) Math.ceil((mc.getViewMaxY() - originY) / cellSize);
+		if (heatmapCounts.length != columns*rows) {
+			heatmapCounts = new int[columns*rows];
+		}
+		Arrays.fill(heatmapCounts, 0);
+		for (int i=0; i<visibleItems.size(); i++) {
+			ArenaItem item = visibleItems.get(i);
+			if (!(layered && item.isStatic())) {
+				int column = Math.max(0, Math.min(columns - 1, (int) ((item.getX() - originX) / cellSize)));
+				int row = Math.max(0, Math.min(rows - 1, (int) ((item.getY() - originY) / cellSize)));
+				heatmapCounts[row*columns + column]++;
+			}
+		}
+		mc.useLayer(MyCanvas.DYNAMIC_LAYER);
+		mc.clearCanvas();
+		mc.showHeatmap(heatmapCounts, columns, rows, cellSize, originX, originY);
+		dirtyRegions.clear();
+	}
+	
+	/**
+	 * Makes the next drawChanges redraw everything, such as when the way items are drawn has changed.
+	 */
+	public void requestFullRedraw() {
+		fullRedraw = true;
+		staticFullRedraw = true;
+	}
+	
+	/**
+	 * Getter - Provides the regions redrawn in the last frame, used for debugging.
+	 * @return Regions redrawn by the last drawChanges.
+	 */
+	public DirtyRegions getLastRegions() {
+		return lastRegions;
+	}
+	
+	/**
+	 * Getter - Provides the profiler timing each phase of a tick.
+	 * @return The arena's profiler.
+	 */
+	public TickProfiler getProfiler() {
+		return profiler;
+	}
+	
+	/**
+	 * Getter - Provides every item in the arena, the list can't be changed.
+	 * @return Items in the arena.
+	 */
+	public List<ArenaItem> getItems() {
+		return Collections.unmodifiableList(robotArena);
+	}
+	
+	/**
+	 * Getter - Provides the counts of what has happened in the arena.
+	 * @return The arena's metrics.
+	 */
+	public SimulationMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Getter - Provides how many pairs of items were checked for collisions in the last tick.
+	 * @return Number of pairs checked.
+	 */
+	public int getPairsTested() {
+		return lastPairsTested;
+	}
+	
+	/**
+	 * Getter - Provides how many pairs of items were found colliding in the last tick.
+	 * @return Number of collisions found.
+	 */
+	public int getPairHits() {
+		return lastPairHits;
+	}
+	
+	/**
+	 * Counts how many of each type of item are in the arena.
+	 * @return Number of items of each type, by class name in alphabetical order.
+	 */
+	public TreeMap<String, Integer> countByType() {
+		TreeMap<String, Integer> counts = new TreeMap<>();
+		for (int i=0; i<robotArena.size(); i++) {
+			counts.merge(robotArena.get(i).getClass().getSimpleName(), 1, Integer::sum);
+		}
+		if (bullets.size() > 0) {
+			counts.put("Bullet", bullets.size());
+		}
+		if (walls.size() > 0) {
+			counts.put("Wall", walls.size());
+		}
+		return counts;
+	}
+	
+	/**
+	 * Checks if an item is still in the arena.
+	 * @param item Item being checked.
+	 * @return If the item is in the arena.
+	 */
+	public boolean contains(ArenaItem item) {
+		return robotArena.contains(item);
+	}
+	
+	/**
+	 * Finds an item or bullet by its ID.
+	 * @param id ID of the item, as shown in its status.
+	 * @return The item, null if there is none with that ID in the arena.
+	 */
+	public ArenaItem getItem(int id) {
+		return itemsByID.get(id);
 	}
 	
 	/**
@@ -111,100 +839,230 @@ public class RobotArena {
 	 * @param direction Directions the user has inputted.
 	 */
 	public void moveControllableRobots(MyCanvas mc, char direction) {
-		for (int i=0; i<robotArena.size(); i++) {
-			if (robotArena.get(i) instanceof ControllableRobot) {
-				switch (direction) {
-				case 'Q': // top left
-					((ControllableRobot)robotArena.get(i)).moveTopLeft(mc);
-					break;
-				case 'E': // top right
-					((ControllableRobot)robotArena.get(i)).moveTopRight(mc);
-					break;
-				case 'Z': // bottom left
-					((ControllableRobot)robotArena.get(i)).moveBottomLeft(mc);
-					break;
-				case 'C': // bottom right
-					((ControllableRobot)robotArena.get(i)).moveBottomRight(mc);
-					break;
-				case 'W': // up
-					((ControllableRobot)robotArena.get(i)).moveUp(mc);
-					break;
-				case 'A': // left
-					((ControllableRobot)robotArena.get(i)).moveLeft(mc);
-					break;
-				case 'S': // down
-					((ControllableRobot)robotArena.get(i)).moveDown(mc);
-					break;
-				case 'D': // right
-					((ControllableRobot)robotArena.get(i)).moveRight(mc);
-					break;
-				}
-					
+		gridStale = true;
+		List<ControllableRobot> controllables = registry.getControllables();
+		for (int i=0; i<controllables.size(); i++) {
+			ControllableRobot robot = controllables.get(i);
+			switch (direction) {
+			case 'Q': // top left
+				robot.moveTopLeft(mc);
+				break;
+			case 'E': // top right
+				robot.moveTopRight(mc);
+				break;
+			case 'Z': // bottom left
+				robot.moveBottomLeft(mc);
+				break;
+			case 'C': // bottom right
+				robot.moveBottomRight(mc);
+				break;
+			case 'W': // up
+				robot.moveUp(mc);
+				break;
+			case 'A': // left
+				robot.moveLeft(mc);
+				break;
+			case 'S': // down
+				robot.moveDown(mc);
+				break;
+			case 'D': // right
+				robot.moveRight(mc);
+				break;
 			}
 		}
 	}
 	
 	/**
-	 * Looks for all Controllable Robots and shoots a bullet out of them
-	 * @return All the bullets that need to be shot out.
+	 * Shoots a bullet out of the front of each controllable robot.
+	 * @return All the bullets that were shot out.
 	 */
 	public ArrayList<Bullet> shootAllBullets() {
 		double offset = 7; // offset of bullet compared to the front of robot
-		ArrayList<Bullet> bullets = new ArrayList<>();
-		for (int i=0; i<robotArena.size(); i++) {
-			if (robotArena.get(i) instanceof ControllableRobot) {
-				//double bulletX = getX() + bulletDistance * Math.cos(Math.toRadians(getAngle()));
-				//double bulletY = getY() + bulletDistance * Math.sin(Math.toRadians(getAngle()));
-		        double bulletX = robotArena.get(i).getX() + (robotArena.get(i).getRadius() + offset) * Math.cos(Math.toRadians(((Robot)robotArena.get(i)).getAngle()));
-		        double bulletY = robotArena.get(i).getY() + (robotArena.get(i).getRadius() + offset) * Math.sin(Math.toRadians(((Robot)robotArena.get(i)).getAngle()));
-				Bullet bullet = new Bullet(bulletX, bulletY, ((Robot)robotArena.get(i)).getAngle(), 'x');
-				robotArena.add(bullet);
-			}
+		List<ControllableRobot> controllables = registry.getControllables();
+		ArrayList<Bullet> shot = new ArrayList<>(controllables.size());
+		for (int i=0; i<controllables.size(); i++) {
+			ControllableRobot robot = controllables.get(i);
+			double bulletX = robot.getX() + (robot.getRadius() + offset) * Math.cos(Math.toRadians(robot.getAngle()));
+			double bulletY = robot.getY() + (robot.getRadius() + offset) * Math.sin(Math.toRadians(robot.getAngle()));
+			Bullet bullet = bullets.obtain(bulletX, bulletY, robot.getAngle());
+			bullet.setBulletSpeed(bulletSpeed);
+			bullet.setID(nextID++); // reused bullets get a new ID, as they are a new shot
+			itemsByID.put(bullet.getID(), bullet);
+			bullet.setTimerWheel(timers);
+			bullet.setWalls(walls);
+			metrics.itemAdded(bullet);
+			metrics.bulletFired();
+			shot.add(bullet);
 		}
-		return bullets;
+		return shot;
 	}
 	
 	/**
-	 * Destroys all bullets that were found to be destroyed from the arena/canvas.
-	 * @param bullets
+	 * Adds a wall that robots can't move through and bullets stop at.
+	 * @param wall Wall being added.
 	 */
-	private void destroyAllBullets(ArrayList<Bullet> bullets) {
-		for (int i=0; i<bullets.size(); i++) {
-			destroyObject(bullets.get(i));
-		}
+	public void addWall(Line wall) {
+		walls.add(wall);
+		requestFullRedraw(); // walls are drawn with the static items
 	}
 	
 	/**
-	 * First robot is known to be hungry, so it checks to see if the other is hungry. If so, compare sizes and
-	 * the biggest eats the smallest.
-	 * @param item1 
-	 * @param item2
+	 * Adds the walls of a random maze covering the arena, made of square cells with every cell reachable
+	 * from every other. The maze is carved by walking from cell to cell, going back when stuck.
+	 * @param cellSize Width of each cell, robots need at least 80 to turn round in a corridor.
+	 * @param mc Canvas giving the size of the arena.
 	 */
-	private void checkHungryRobot(ArenaItem item1, ArenaItem item2, MyCanvas mc) {
-		if (item1 instanceof HungryRobot && item2 instanceof HungryRobot) { // both are hungry robots
-			if (item1.compareSize(item2)) { // 1st robot is bigger than the other
-				eatRobot(item1, item2, mc); // 
+	public void addMaze(int cellSize, MyCanvas mc) {
+		int columns = Math.max(1, mc.getXCanvasSize() / cellSize);
+		int rows = Math.max(1, mc.getYCanvasSize() / cellSize);
+		boolean[] visited = new boolean[columns*rows];
+		boolean[] openRight = new boolean[columns*rows]; // if there is no wall to the right of each cell
+		boolean[] openDown = new boolean[columns*rows]; // if there is no wall below each cell
+		int[] path = new int[columns*rows];
+		int length = 0;
+		path[length++] = 0;
+		visited[0] = true;
+		int[] choices = new int[4];
+		while (length > 0) {
+			int cell = path[length-1];
+			int column = cell % columns, row = cell / columns;
+			int options = 0;
+			if (column > 0 && !visited[cell-1]) {
+				choices[options++] = cell-1;
+			}
+			if (column < columns-1 && !visited[cell+1]) {
+				choices[options++] = cell+1;
+			}
+			if (row > 0 && !visited[cell-columns]) {
+				choices[options++] = cell-columns;
+			}
+			if (row < rows-1 && !visited[cell+columns]) {
+				choices[options++] = cell+columns;
+			}
+			if (options == 0) {
+				length--; // dead end, go back
+				continue;
+			}
+			int next = choices[random.nextInt(options)];
+			if (next == cell+1 || next == cell-1) {
+				openRight[Math.min(cell, next)] = true;
+			} else {
+				openDown[Math.min(cell, next)] = true;
+			}
+			visited[next] = true;
+			path[length++] = next;
+		}
+		for (int cell=0; cell<columns*rows; cell++) {
+			int x = (cell % columns) * cellSize, y = (cell / columns) * cellSize;
+			if (cell % columns < columns-1 && !openRight[cell]) {
+				addWall(new Line(x + cellSize, y, x + cellSize, y + cellSize));
 			}
-			else { // 2nd robot is bigger than first
-				eatRobot(item2, item1, mc); 
+			if (cell / columns < rows-1 && !openDown[cell]) {
+				addWall(new Line(x, y + cellSize, x + cellSize, y + cellSize));
 			}
 		}
-		else if (item1 instanceof HungryRobot) { // only 1st robot is hungry
-			eatRobot(item1, item2, mc);
+	}
+	
+	/**
+	 * Getter - Provides the arena's walls.
+	 * @return The arena's wall tree.
+	 */
+	public WallTree getWalls() {
+		return walls;
+	}
+	
+	/**
+	 * Setter - Sets how many pixels bullets fired from now on travel each tick, on top of their radius.
+	 * @param _bulletSpeed Speed of new bullets.
+	 */
+	public void setBulletSpeed(double _bulletSpeed) {
+		bulletSpeed = _bulletSpeed;
+	}
+	
+	/**
+	 * Getter - Provides the arena's items sorted by type.
+	 * @return The arena's registry, its lists can't be changed.
+	 */
+	public ItemRegistry getRegistry() {
+		return registry;
+	}
+	
+	/**
+	 * Moves every bullet in flight, destroying any that hit something, including another bullet, or leave the
+	 * arena. Bullets are gone through from a copy of the pool taken first, from the end, as destroying a bullet
+	 * moves the last bullet into its place, which would otherwise be moved twice.
+	 * @param mc Canvas needed to check if the bullets are within the arena's boundaries.
+	 */
+	private void updateBullets(MyCanvas mc) {
+		if (bullets.size() == 0) {
+			return;
+		}
+		SpatialGrid index = getGrid(mc); // built once, bullets hitting items doesn't rebuild it
+		staticTree.update(registry.getObstacles());
+		bulletsThisTick.clear();
+		bulletReach = 0;
+		for (int i=0; i<bullets.size(); i++) {
+			Bullet bullet = bullets.get(i);
+			bulletsThisTick.add(bullet);
+			bulletReach = Math.max(bulletReach, Math.hypot(bullet.getStepX(), bullet.getStepY()));
+		}
+		if (bulletsThisTick.size() > 1) {
+			if (bulletGrid == null) {
+				bulletGrid = new SpatialGrid(mc.getXCanvasSize(), mc.getYCanvasSize());
+			}
+			bulletGrid.rebuild(bulletsThisTick);
 		}
-		else if (item2 instanceof HungryRobot) { // only 2nd robot is hungry
-			eatRobot(item2, item1, mc);
+		for (int i=bulletsThisTick.size()-1; i>=0; i--) {
+			Bullet bullet = bulletsThisTick.get(i);
+			if (bullet.getPoolIndex() < 0) {
+				continue; // hit by a bullet that moved before it
+			}
+			long collisionStart = profiler.begin();
+			boolean collided = sweepBullet(bullet, index, mc); // hitting an item destroys both
+			profiler.add(TickProfiler.COLLISIONS, collisionStart);
+			if (bullet.getPoolIndex() < 0) {
+				continue; // already destroyed
+			}
+			bullet.updatePosition(mc, collided);
+			if (bullet.getIsDestroyed()) { // hit a wall
+				destroyObject(bullet);
+			}
 		}
+		bulletsThisTick.clear(); // don't hold on to bullets that have been released
 	}
 	
 	/**
-	 * item1 eats item2, increasing its size.
-	 * @param item1
-	 * @param item2
+	 * Eats every meal found by findContacts as one batch: each item is eaten by exactly one hungry robot, the
+	 * largest touching it, and each robot that ate grows once by however much it ate.
+	 * @param mc Canvas needed when a hungry robot grows.
 	 */
-	private void eatRobot(ArenaItem item1, ArenaItem item2, MyCanvas mc) {
-		destroyObject(item2);
-		((HungryRobot)item1).increaseSize(mc);
+	private void resolveEating(MyCanvas mc) {
+		if (eating.size() == 0) {
+			return;
+		}
+		eating.resolve(robotArena.size());
+		List<HungryRobot> eaters = eating.getEaters();
+		for (int i=0; i<eaters.size(); i++) { // grown before anything is removed, as meals are counted by arena position
+			HungryRobot eater = eaters.get(i);
+			eater.grow(eating.getMealsEaten(eater), mc);
+			if (neighbourList != null) {
+				neighbourList.itemChanged(eater); // may now reach items that weren't its neighbours
+			}
+		}
+		List<EatBatch.Meal> meals = eating.getEatenMeals();
+		for (int i=0; i<meals.size(); i++) {
+			EatBatch.Meal meal = meals.get(i);
+			EatEvent eat = new EatEvent();
+			eat.begin();
+			destroyObject(meal.getVictim());
+			metrics.robotEaten();
+			if (eat.shouldCommit()) {
+				eat.eaterID = meal.getEater().getID();
+				eat.eatenType = meal.getVictim().getClass().getSimpleName();
+				eat.eaterRadius = meal.getEater().getRadius();
+				eat.commit();
+			}
+		}
 	}
 	
 	/**
@@ -219,34 +1077,126 @@ public class RobotArena {
 		}
 	}
 	
-
-	
 	/**
 	 * Removes all items from arena
 	 */
 	public void clearArena() {
 		robotArena.clear();
+		registry.clear();
+		itemsByID.clear();
+		timers.clear();
+		bullets.clear();
+		walls.clear();
+		staticTree.markStale();
+		staticNear.clear();
+		if (neighbourList != null) {
+			neighbourList.markStale();
+		}
+		gridStale = true;
+		metrics.itemsCleared();
+		dirtyRegions.clear();
+		staticRegions.clear();
+		requestFullRedraw();
+	}
+	
+	/**
+	 * Adds the items from a saved arena, each item separated by a semicolon. Checks the item type, and then
+	 * loads the appropriate information.
+	 * @param fs Saved arena, as written by fileString.
+	 */
+	public void loadFromString(String fs) {
+		fs = fs.trim(); // removing /n at end of string
+		if (fs.isEmpty()) {
+			return; // nothing was saved
+		}
+		String[] spltfs = fs.split(";"); // separates each object
+		for (int i=0; i<spltfs.length; i++) {
+			String itemType = spltfs[i].split(" ")[0];
+			switch (itemType) {
+			case "C":
+				double ControllablerobotX = Double.parseDouble(spltfs[i].split(" ")[1]);
+				double ControllablerobotY = Double.parseDouble(spltfs[i].split(" ")[2]);
+				double ControllablerobotAngle = Double.parseDouble(spltfs[i].split(" ")[3]);
+				Robot controllableRobot = new ControllableRobot(ControllablerobotX,ControllablerobotY,ControllablerobotAngle, 'r');
+				addObject(controllableRobot);
+				break;
+			case "R":
+				double robotX = Double.parseDouble(spltfs[i].split(" ")[1]);
+				double robotY = Double.parseDouble(spltfs[i].split(" ")[2]);
+				double robotAngle = Double.parseDouble(spltfs[i].split(" ")[3]);
+				Robot robot = new Robot(robotX,robotY,robotAngle, 'b');
+				addObject(robot);
+				break;
+			case "O":
+				double obstacleX = Double.parseDouble(spltfs[i].split(" ")[1]);
+				double obstacleY = Double.parseDouble(spltfs[i].split(" ")[2]);
+				Obstacle obstacle = new Obstacle(obstacleX,obstacleY);
+				addObject(obstacle);
+				break;
+			case "P":
+				double PartyX = Double.parseDouble(spltfs[i].split(" ")[1]);
+				double PartyY = Double.parseDouble(spltfs[i].split(" ")[2]);
+				PartyObstacle party = new PartyObstacle(PartyX,PartyY);
+				addObject(party);
+				break;
+			case "H":
+				double hungryRobotX = Double.parseDouble(spltfs[i].split(" ")[1]);
+				double hungryRobotY = Double.parseDouble(spltfs[i].split(" ")[2]);
+				double hungryRobotAngle = Double.parseDouble(spltfs[i].split(" ")[3]);
+				int hungryRobotSize = Integer.parseInt(spltfs[i].split(" ")[4]);
+				HungryRobot hungryRobot = new HungryRobot(hungryRobotX,hungryRobotY,hungryRobotAngle, 'g');
+				hungryRobot.increaseSize(hungryRobotSize);
+				addObject(hungryRobot);
+				break;
+			case "W":
+				double wallX1 = Double.parseDouble(spltfs[i].split(" ")[1]);
+				double wallY1 = Double.parseDouble(spltfs[i].split(" ")[2]);
+				double wallX2 = Double.parseDouble(spltfs[i].split(" ")[3]);
+				double wallY2 = Double.parseDouble(spltfs[i].split(" ")[4]);
+				addWall(new Line(wallX1, wallY1, wallX2, wallY2));
+				break;
+			}
+		}
 	}
 	
 	/**
 	 * Output each object's information such as ID, x and y.
 	 */
 	public String toString() {
-		String output = "";
-		for (int i=0; i<robotArena.size(); i++) {
-			output += robotArena.get(i).toString();
+		return statusString(Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Output the information of the first few objects, using each object's cached status.
+	 * @param maxLines Most objects shown, any more are summed up on one line.
+	 * @return Information of the objects, one per line.
+	 */
+	public String statusString(int maxLines) {
+		int total = robotArena.size() + bullets.size();
+		int shown = Math.min(maxLines, total);
+		StringBuilder output = new StringBuilder(shown * 64 + 32); // status lines are about 60 characters
+		for (int i=0; i<shown; i++) {
+			ArenaItem item = i < robotArena.size() ? robotArena.get(i) : bullets.get(i - robotArena.size());
+			output.append(item.getStatus());
 		}
-		return output;
+		if (shown < total) {
+			output.append("... and ").append(total - shown).append(" more\n");
+		}
+		return output.toString();
 	}
 	/**
 	 * Outputs necessary information needed of each object so it can be saved
-	 * @return All of the ArenaItems' essential information in order.
+	 * @return All of the ArenaItems' essential information in order, followed by the walls.
 	 */
 	public String fileString() {
-		String fileInfo = "";
+		StringBuilder fileInfo = new StringBuilder(); // mazes have thousands of walls, so the string isn't copied for each one
 		for (int i=0; i<robotArena.size(); i++) {
-			fileInfo += robotArena.get(i).getSaveString();
+			fileInfo.append(robotArena.get(i).getSaveString());
+		}
+		for (int i=0; i<walls.size(); i++) {
+			double[] ends = walls.get(i).getLinePos();
+			fileInfo.append("W ").append(ends[0]).append(' ').append(ends[1]).append(' ').append(ends[2]).append(' ').append(ends[3]).append(';');
 		}
-		return fileInfo;
+		return fileInfo.toString();
 	}
 }
@@ -1,11 +1,12 @@
 package RobotProjectGUI;
 
-import java.util.ArrayList;
+import java.io.File;
 import java.util.HashSet;
 import java.util.Set;
 
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.Group;
@@ -13,13 +14,17 @@ import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.Label;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
@@ -33,32 +38,78 @@ import javafx.stage.Stage;
  */
 public class RobotGUI extends Application{
 	private int canvasSize = 512;				// constants for relevant sizes
+	private int worldSize = 1024;				// size of the arena, can be larger than the canvas
     private MyCanvas mc; 
     private RobotArena myArena;
-    private TextFile tf; // handles saving & loading
+    private FileService files; // handles saving & loading, without blocking the animation
+    private Stage stage; // main window, owns the file dialogs
+    private ProgressBar fileProgress = new ProgressBar(); // shown while a file is being saved or loaded
     private VBox rtPane;
+    private Label statusLabel = new Label(); // status shown in the right pane, only its text changes
+    private static final int STATUS_LINES = 40; // most items listed in the right pane
+    private static final int MAZE_CELL_SIZE = 96; // width of each corridor of a maze, wide enough for robots to turn
     private boolean animationOn = false;
     private ArenaItem selectedArenaItem = null;
+    private boolean showRedrawRegions = false; // debug overlay, outlines what was redrawn each frame
+    private boolean showProfiler = false; // debug overlay, shows how long each phase of a tick takes
     private double offsetX, offsetY; // offset for dragging object
+    private double panX, panY; // last mouse position while panning the view
     private Set<KeyCode> pressedKeys = new HashSet<>(); // used for checking which keys are currently used. Used HashSet to avoid duplicates.
     
     /**
      * Updating old canvas with new object positions and information.
      */
 	public void displaySystem() {
-		mc.clearCanvas();
-		myArena.drawSystem(mc);
+		myArena.drawChanges(mc); // only redraws what has changed
+		drawOverlay();
 		drawStatus();
+		myArena.getProfiler().endFrame();
+	}
+	
+	/**
+	 * Redraws the overlay layer, showing the selected item and any debugging information.
+	 */
+	private void drawOverlay() {
+		mc.useLayer(MyCanvas.OVERLAY_LAYER);
+		mc.clearCanvas();
+		if (selectedArenaItem != null && myArena.contains(selectedArenaItem)) {
+			mc.showSelection(selectedArenaItem.getX(), selectedArenaItem.getY(), selectedArenaItem.getRadius() + 4);
+		}
+		if (showRedrawRegions) {
+			mc.showRegions(myArena.getLastRegions());
+		}
+		if (showProfiler) {
+			mc.showPanel(profilerLines());
+		}
+		mc.useLayer(MyCanvas.DYNAMIC_LAYER);
 	}
+	/**
+	 * Works out the lines shown by the profiler overlay.
+	 * @return Frame and tick rate, timings of each phase, item counts and collision checks.
+	 */
+	private String[] profilerLines() {
+		TickProfiler profiler = myArena.getProfiler();
+		String[] phases = profiler.phaseLines();
+		String[] lines = new String[phases.length + 3];
+		lines[0] = String.format("%.1f fps  %.1f ticks/s", profiler.getFrameRate(), profiler.getTickRate());
+		System.arraycopy(phases, 0, lines, 1, phases.length);
+		lines[phases.length + 1] = myArena.countByType().toString();
+		lines[phases.length + 2] = "collision pairs tested " + myArena.getPairsTested() + ", hit " + myArena.getPairHits();
+		return lines;
+	}
+	
 	/**
 	 * Constantly updating the status of each object's position on the right.
 	 */
 	private void drawStatus() {
-		rtPane.getChildren().clear(); // clears current status
-		String statusInfo = myArena.toString() + "\n"; // string for all status info
+		long statusStart = myArena.getProfiler().begin();
+		String statusInfo = myArena.statusString(STATUS_LINES) + "\n"; // string for all status info
 		String keyInputInfo = "Keys pressed: " + pressedKeys.toString();
-		Label label = new Label(statusInfo + keyInputInfo); // creates new status
-		rtPane.getChildren().add(label); // adds it to pane
+		String status = statusInfo + keyInputInfo;
+		if (!status.equals(statusLabel.getText())) {
+			statusLabel.setText(status); // only laid out again if something changed
+		}
+		myArena.getProfiler().end(TickProfiler.STATUS, statusStart);
 	}
 	
 	/** 
@@ -67,7 +118,7 @@ public class RobotGUI extends Application{
 	private void createRobot() {
 		Robot robot = new Robot(mc, myArena, 'r');
 		myArena.addObject(robot); // adding robot to the arena
-		robot.drawObject(mc); // if paused, robot should still be presented on screen
+		displaySystem(); // if paused, robot should still be presented on screen
 	}
     
 	/**
@@ -76,7 +127,25 @@ public class RobotGUI extends Application{
 	private void createObstacle() {
 		Obstacle obstacle = new Obstacle(mc, myArena);
 		myArena.addObject(obstacle);
-		obstacle.drawObject(mc);
+		displaySystem();
+	}
+	
+	/**
+	 * Adds the walls of a random maze across the arena and draws them onto canvas.
+	 */
+	private void createMaze() {
+		myArena.addMaze(MAZE_CELL_SIZE, mc);
+		displaySystem();
+	}
+	
+	/**
+	 * Turns hunting on or off for every hungry robot.
+	 * @param hunt Button pressed, its text shows which way hunting can be switched next.
+	 */
+	private void toggleHunting(Button hunt) {
+		boolean hunting = myArena.getHuntInterval() == 0;
+		myArena.setHunting(hunting ? HungryRobot.DEFAULT_RETARGET_INTERVAL : 0);
+		hunt.setText(hunting ? "Stop Hunting" : "Hunt");
 	}
 	
 	/**
@@ -85,7 +154,7 @@ public class RobotGUI extends Application{
 	private void createPartyObstacle() {
 		PartyObstacle party = new PartyObstacle(mc, myArena);
 		myArena.addObject(party);
-		party.drawObject(mc);
+		displaySystem();
 	}
 	
 	/**
@@ -94,7 +163,7 @@ public class RobotGUI extends Application{
 	private void createHungryRobot() {
 		HungryRobot hungryRobot = new HungryRobot(mc, myArena, 'g');
 		myArena.addObject(hungryRobot);
-		hungryRobot.drawObject(mc);
+		displaySystem();
 	}
 	
 	/**
@@ -103,7 +172,7 @@ public class RobotGUI extends Application{
 	private void createControllableRobot() {
 		ControllableRobot controllableRobot = new ControllableRobot(mc, myArena, 'r');
 		myArena.addObject(controllableRobot);
-		controllableRobot.drawObject(mc);
+		displaySystem();
 	}
 	
 	/**
@@ -112,7 +181,7 @@ public class RobotGUI extends Application{
 	private void createWhiskerRobot() {
 		WhiskerRobot whiskerRobot = new WhiskerRobot(mc, myArena, 'y');
 		myArena.addObject(whiskerRobot);
-		whiskerRobot.drawObject(mc);
+		displaySystem();
 	}
 	
 	/**
@@ -122,11 +191,8 @@ public class RobotGUI extends Application{
 	 * @param angle
 	 */
 	private void shootBullets() {
-		ArrayList<Bullet> bullets = myArena.shootAllBullets();
-		for (int i=0; i<bullets.size(); i++) {
-			bullets.get(i).drawObject(mc);
-			//System.out.println(bullets.get(i).getX() + " " + bullets.get(i).getY() + " " + bullets.get(i).getAngle());
-		}
+		myArena.shootAllBullets();
+		displaySystem(); // new bullets shown even if paused
 	}
 	
 	/**
@@ -134,6 +200,7 @@ public class RobotGUI extends Application{
 	 */
 	private void destroyObject(ArenaItem item) {
 		myArena.destroyObject(item);
+		selectedArenaItem = null;
 		displaySystem();
 	}
 	
@@ -142,16 +209,26 @@ public class RobotGUI extends Application{
 	 */
 	private void clearCanvas() {
 		myArena.clearArena();
-		mc.clearCanvas();
-		rtPane.getChildren().clear();
+		selectedArenaItem = null;
+		myArena.drawChanges(mc); // clears the static and dynamic layers
+		drawOverlay();
+		statusLabel.setText("");
 	}
 	
 	/**
 	 * saves arena, putting it in text file
 	 */
 	private void saveArena() {
-		if (tf.createFile()) {
-			tf.writeAllFile(myArena.fileString());
+		File file = files.chooseSaveFile(stage);
+		if (file != null) {
+			String fs = myArena.fileString(); // taken now, so later ticks don't change what is saved
+			fileProgress.setVisible(true);
+			files.writeAsync(file, fs, this::showFileProgress).whenComplete((done, error) -> Platform.runLater(() -> {
+				fileProgress.setVisible(false);
+				if (error != null) {
+					showMessage("Save", "Could not save to " + file.getName() + ": " + error.getCause().getMessage());
+				}
+			}));
 		}
 	}
 	
@@ -161,55 +238,30 @@ public class RobotGUI extends Application{
 	 */
 	
 	private void loadArena() {
-		if (tf.openFile()) {
-			String fs = tf.readAllFile(); 
-			fs = fs.substring(0,fs.length()-1); // removing /n at end of string
-			String[] spltfs = fs.split(";"); // separates each object
-			clearCanvas(); // clears whatever is currently on the canvas
-			for (int i=0; i<spltfs.length; i++) {
-				String itemType = spltfs[i].split(" ")[0];
-				switch (itemType) {
-				case "C":
-					double ControllablerobotX = Double.parseDouble(spltfs[i].split(" ")[1]);
-					double ControllablerobotY = Double.parseDouble(spltfs[i].split(" ")[2]);
-					double ControllablerobotAngle = Double.parseDouble(spltfs[i].split(" ")[3]);
-					Robot controllableRobot = new ControllableRobot(ControllablerobotX,ControllablerobotY,ControllablerobotAngle, 'r');
-					myArena.addObject(controllableRobot);
-					break;
-				case "R":
-					double robotX = Double.parseDouble(spltfs[i].split(" ")[1]);
-					double robotY = Double.parseDouble(spltfs[i].split(" ")[2]);
-					double robotAngle = Double.parseDouble(spltfs[i].split(" ")[3]);
-					Robot robot = new Robot(robotX,robotY,robotAngle, 'b');
-					myArena.addObject(robot);
-					break;
-				case "O":
-					double obstacleX = Double.parseDouble(spltfs[i].split(" ")[1]);
-					double obstacleY = Double.parseDouble(spltfs[i].split(" ")[2]);
-					Obstacle obstacle = new Obstacle(obstacleX,obstacleY);
-					myArena.addObject(obstacle);
-					break;
-				case "P":
-					double PartyX = Double.parseDouble(spltfs[i].split(" ")[1]);
-					double PartyY = Double.parseDouble(spltfs[i].split(" ")[2]);
-					PartyObstacle party = new PartyObstacle(PartyX,PartyY);
-					myArena.addObject(party);
-					break;
-				case "H":
-					double hungryRobotX = Double.parseDouble(spltfs[i].split(" ")[1]);
-					double hungryRobotY = Double.parseDouble(spltfs[i].split(" ")[2]);
-					double hungryRobotAngle = Double.parseDouble(spltfs[i].split(" ")[3]);
-					int hungryRobotSize = Integer.parseInt(spltfs[i].split(" ")[4]);
-					HungryRobot hungryRobot = new HungryRobot(hungryRobotX,hungryRobotY,hungryRobotAngle, 'g');
-					hungryRobot.increaseSize(hungryRobotSize);
-					myArena.addObject(hungryRobot);
-					break;			
+		File file = files.chooseOpenFile(stage);
+		if (file != null) {
+			fileProgress.setVisible(true);
+			files.readAsync(file, this::showFileProgress).whenComplete((fs, error) -> Platform.runLater(() -> {
+				fileProgress.setVisible(false);
+				if (error != null) {
+					showMessage("Load", "Could not load " + file.getName() + ": " + error.getCause().getMessage());
+					return;
 				}
+				clearCanvas(); // clears whatever is currently on the canvas
+				myArena.loadFromString(fs);
 				displaySystem();
-			}
+			}));
 		}
 	}
 	
+	/**
+	 * Shows how far through a file the save or load is, can be called from any thread.
+	 * @param fraction Fraction of the file done.
+	 */
+	private void showFileProgress(double fraction) {
+		Platform.runLater(() -> fileProgress.setProgress(fraction));
+	}
+	
 	/**
 	 * generates an alert, used for menu messages
 	 * @param TStr
@@ -260,6 +312,14 @@ public class RobotGUI extends Application{
     	MenuItem mLoad = new MenuItem("Load");
     	MenuItem mExit = new MenuItem("Exit");
     	
+    	Menu mView = new Menu("View"); // view section, handles how the arena is drawn
+    	CheckMenuItem mSprites = new CheckMenuItem("Sprite Rendering");
+    	CheckMenuItem mRegions = new CheckMenuItem("Show Redrawn Regions");
+    	MenuItem mFit = new MenuItem("Fit Arena");
+    	CheckMenuItem mDetail = new CheckMenuItem("Level of Detail");
+    	CheckMenuItem mProfiler = new CheckMenuItem("Show Profiler");
+    	mDetail.setSelected(true);
+    	
     	Menu mHelp = new Menu("Help"); // help section
     	MenuItem mAbout = new MenuItem("About"); // info on creator 
     	MenuItem mInfo = new MenuItem("Info"); //  info on robots
@@ -285,6 +345,50 @@ public class RobotGUI extends Application{
             }	
  		});
     	
+    	mSprites.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent actionEvent) {
+            	mc.setUseSprites(mSprites.isSelected());	// draw robots from cached images
+            	myArena.requestFullRedraw();
+            	displaySystem();
+            }	
+ 		});
+    	
+    	mDetail.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent actionEvent) {
+            	mc.setLevelOfDetail(mDetail.isSelected());	// small or crowded items drawn with less detail
+            	myArena.requestFullRedraw();
+            	displaySystem();
+            }	
+ 		});
+    	
+    	mFit.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent actionEvent) {
+            	mc.fitWorld();								// zoom out to show the whole arena
+            	myArena.requestFullRedraw();
+            	displaySystem();
+            }	
+ 		});
+    	
+    	mRegions.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent actionEvent) {
+            	showRedrawRegions = mRegions.isSelected();	// outline redrawn regions on the overlay
+            	drawOverlay();
+            }	
+ 		});
+    	
+    	mProfiler.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent actionEvent) {
+            	showProfiler = mProfiler.isSelected();		// time each phase and show it on the overlay
+            	myArena.getProfiler().setEnabled(showProfiler);
+            	drawOverlay();
+            }	
+ 		});
+    	
     	mAbout.setOnAction(new EventHandler<ActionEvent>() {
             @Override
             public void handle(ActionEvent actionEvent) {
@@ -300,8 +404,9 @@ public class RobotGUI extends Application{
  		});
     	
     	mFile.getItems().addAll(mSave, mLoad, mExit); // merging submenus to file section
+    	mView.getItems().addAll(mFit, mSprites, mDetail, mRegions, mProfiler); // merging submenus to view section
     	mHelp.getItems().addAll(mAbout, mInfo); // merging submenus to help section
-    	menuBar.getMenus().addAll(mFile, mHelp); // merging sections to menu
+    	menuBar.getMenus().addAll(mFile, mView, mHelp); // merging sections to menu
     	
     	return menuBar;
     }
@@ -394,13 +499,28 @@ public class RobotGUI extends Application{
     			createPartyObstacle();
     		}
     	});
+    	Button addMaze = new Button("Maze");
+    	addMaze.setOnAction(new EventHandler<ActionEvent>() {
+    		@Override
+    		public void handle(ActionEvent actonEvent) {
+    			createMaze();
+    		}
+    	});
+    	Button hunt = new Button("Hunt");
+    	hunt.setOnAction(new EventHandler<ActionEvent>() {
+    		@Override
+    		public void handle(ActionEvent actonEvent) {
+    			toggleHunting(hunt);
+    		}
+    	});
     	return new HBox(startAnim, pauseAnim , clear, remove, add, addRobot, addHungryRobot,
-    			addControllableRobot, addObstacle, addPartyObstacle);
+    			addControllableRobot, addObstacle, addPartyObstacle, addMaze, hunt);
     	// addWhiskerRobot,
     }
     
     /**
-     * Allows user to drag the robots across the arena, but not off the screen.
+     * Allows user to drag the robots across the arena, but not off the screen. Dragging with the right
+     * mouse button pans the view, and scrolling zooms in and out around the mouse.
      * @param canvas
      */
     private void setMouseEvents (Canvas canvas) {
@@ -408,8 +528,13 @@ public class RobotGUI extends Application{
 	    	       new EventHandler<MouseEvent>() {
 	    	           @Override
 	    	           public void handle(MouseEvent e) {
-	    	        	   double mouseX = e.getX();
-	    	        	   double mouseY = e.getY();
+	    	        	   if (e.getButton() == MouseButton.SECONDARY) {
+	    	        		   panX = e.getX(); // start panning from here
+	    	        		   panY = e.getY();
+	    	        		   return;
+	    	        	   }
+	    	        	   double mouseX = mc.toWorldX(e.getX()); // mouse position in the arena
+	    	        	   double mouseY = mc.toWorldY(e.getY());
 	    	        	   selectedArenaItem = myArena.getArenaItemAt(mouseX, mouseY);
 	    	        	   
 	    	        	   // if it exists, need to add an offset so object doesn't snap to mouse
@@ -417,23 +542,43 @@ public class RobotGUI extends Application{
 	    	                   offsetX = mouseX - selectedArenaItem.getX();
 	    	                   offsetY = mouseY - selectedArenaItem.getY();
 	    	               }
+	    	               drawOverlay(); // show what is selected
 	    	           }
 	    	       });
 	       canvas.addEventHandler(MouseEvent.MOUSE_DRAGGED, 
 	    	       new EventHandler<MouseEvent>() {
 	    	           @Override
 	    	           public void handle(MouseEvent e) {
+	    	        	   if (e.getButton() == MouseButton.SECONDARY) {
+	    	        		   mc.pan(e.getX() - panX, e.getY() - panY);
+	    	        		   panX = e.getX();
+	    	        		   panY = e.getY();
+	    	        		   myArena.requestFullRedraw(); // everything on screen has moved
+	    	        		   displaySystem();
+	    	        		   return;
+	    	        	   }
 	    	               if (selectedArenaItem != null) {
 	    	                   // Update the position of the selected item based on mouse drag
-	    	                   double newX = e.getX() - offsetX;
-	    	                   double newY = e.getY() - offsetY;
+	    	                   double newX = mc.toWorldX(e.getX()) - offsetX;
+	    	                   double newY = mc.toWorldY(e.getY()) - offsetY;
 		    	        	   if (selectedArenaItem.isValidPosition(newX, newY, mc)){
 		    	        		   selectedArenaItem.setPosition(newX, newY);
+		    	        		   myArena.markMoved();
 		    	                   displaySystem();
 		    	        	   }
 	    	               }
 	    	           }
 	       		});
+	       canvas.addEventHandler(ScrollEvent.SCROLL, 
+	    	       new EventHandler<ScrollEvent>() {
+	    	           @Override
+	    	           public void handle(ScrollEvent e) {
+	    	        	   double factor = e.getDeltaY() > 0 ? 1.1 : 1/1.1; // zoom in when scrolling up
+	    	        	   mc.zoomAt(factor, e.getX(), e.getY());
+	    	        	   myArena.requestFullRedraw();
+	    	        	   displaySystem();
+	    	           }
+	       		});
     	}
     
     /**
@@ -503,6 +648,7 @@ public class RobotGUI extends Application{
      */
 	@Override
 	public void start(Stage stagePrimary) throws Exception {
+		stage = stagePrimary;
 		stagePrimary.setTitle("Dijan's Robot Simulation");
 
 	    BorderPane bp = new BorderPane();			// create border pane
@@ -510,17 +656,20 @@ public class RobotGUI extends Application{
 	    bp.setTop(setMenu());						// create menu, add to top
 
 	    Group root = new Group();					// create group
-	    Canvas canvas = new Canvas( canvasSize, canvasSize );
-	    											// and canvas to draw in
-	    root.getChildren().add( canvas );			// and add canvas to group
-	    mc = new MyCanvas(canvas.getGraphicsContext2D(), canvasSize, canvasSize);
-					// create MyCanvas passing context on canvas onto which images put
+	    mc = new MyCanvas(canvasSize, canvasSize, worldSize, worldSize);
+	    											// create MyCanvas with a canvas for each layer
+	    mc.fitWorld();								// start with the whole arena in view
+	    Canvas[] layers = mc.getLayerCanvases();
+	    root.getChildren().addAll( layers );		// and add them to group, static layer at the bottom
+	    Canvas canvas = layers[MyCanvas.OVERLAY_LAYER];	// top layer receives the mouse events
 	    myArena = new RobotArena();
-	    tf = new TextFile("Text files", "txt");
+	    myArena.getMetrics().register("gui");		// metrics can be watched through JMX
+	    files = new FileService("Text files", "txt");
 	    
 	    bp.setCenter(root);							// put group in centre pane
 
-	    rtPane = new VBox();						// set vBox for listing data
+	    fileProgress.setVisible(false);
+	    rtPane = new VBox(fileProgress, statusLabel);	// set vBox for listing data
 	    bp.setRight(rtPane);						// put in right pane
 
 	    Scene scene = new Scene(bp, canvasSize*1.6, canvasSize*1.2);
@@ -0,0 +1,26 @@
+package RobotProjectGUI;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *
+ * @author dijan
+ * Flight recorder event for reading or writing a whole file, from FileService.
+ */
+@Name("RobotProjectGUI.SaveLoad")
+@Label("Save/Load")
+@Category("Robot Simulation")
+@Description("Reading or writing a whole arena file")
+public class SaveLoadEvent extends jdk.jfr.Event {
+	@Label("Operation")
+	String operation;
+
+	@Label("File")
+	String file;
+
+	@Label("Characters")
+	long characters;
+}
@@ -0,0 +1,291 @@
+package RobotProjectGUI;
+
+import java.lang.management.ManagementFactory;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ *
+ * @author dijan
+ * Class that counts what happens in an arena over a long run, such as ticks, collisions, robots eaten and
+ * bullets, along with how long ticks take and how much memory they allocate. The arena updates the counts
+ * as it runs, and they can be read at any time, through JMX or written to a file by a MetricsReporter.
+ */
+public class SimulationMetrics implements SimulationMetricsMBean {
+	private volatile long ticks;
+	private volatile long robotsEaten, bulletsFired, bulletsDestroyed, partyInfections;
+	private volatile long collisions; // total collisions found over every tick
+	private volatile int collisionsLastTick;
+	private volatile double ticksPerSecond;
+	private long rateStart = System.nanoTime(), rateTicks; // ticks counted towards the tick rate since rateStart
+	private Histogram tickLatency = Histogram.exponential(40, 16); // nanoseconds per tick, to within a sixteenth of a power of two
+	private ConcurrentHashMap<String, Integer> liveEntities = new ConcurrentHashMap<>(); // items in the arena by class name
+	private com.sun.management.ThreadMXBean threads; // used to measure allocation, null if the JVM can't
+	private volatile long allocatedLastTick, allocatedTotal;
+	private long tickStart, allocatedAtStart; // taken at the start of the current tick
+
+	/**
+	 * Default constructor, starts with every count at 0.
+	 */
+	SimulationMetrics(){
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+			threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+			if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+				threads = null;
+			}
+		}
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server, so they can be seen through JMX.
+	 * @param name Name the metrics are shown under, such as the name of the run.
+	 */
+	public void register(String name) {
+		try {
+			ObjectName objectName = new ObjectName("RobotProjectGUI:type=SimulationMetrics,name=" + ObjectName.quote(name));
+			if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			}
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Marks the start of a tick.
+	 */
+	public void tickStarted() {
+		tickStart = System.nanoTime();
+		if (threads != null) {
+			allocatedAtStart = threads.getCurrentThreadAllocatedBytes();
+		}
+	}
+
+	/**
+	 * Marks the end of a tick, keeping how long it took and how much it allocated.
+	 * @param tickCollisions Number of collisions found during the tick.
+	 */
+	public void tickEnded(int tickCollisions) {
+		long now = System.nanoTime();
+		tickLatency.record(now - tickStart);
+		if (threads != null) {
+			allocatedLastTick = threads.getCurrentThreadAllocatedBytes() - allocatedAtStart;
+			allocatedTotal += allocatedLastTick;
+		}
+		collisionsLastTick = tickCollisions;
+		collisions += tickCollisions;
+		ticks++;
+		rateTicks++;
+		if (now - rateStart >= 1000000000L) { // tick rate is worked out about once a second
+			ticksPerSecond = rateTicks * 1e9 / (now - rateStart);
+			rateStart = now;
+			rateTicks = 0;
+		}
+	}
+
+	/**
+	 * Counts a robot being eaten by a hungry robot.
+	 */
+	public void robotEaten() {
+		robotsEaten++;
+	}
+
+	/**
+	 * Counts a bullet being shot.
+	 */
+	public void bulletFired() {
+		bulletsFired++;
+	}
+
+	/**
+	 * Counts a robot being infected with party mode.
+	 */
+	public void partyInfection() {
+		partyInfections++;
+	}
+
+	/**
+	 * Counts an item being added to the arena.
+	 * @param item Item added.
+	 */
+	public void itemAdded(ArenaItem item) {
+		liveEntities.merge(item.getClass().getSimpleName(), 1, Integer::sum);
+	}
+
+	/**
+	 * Counts an item being removed from the arena.
+	 * @param item Item removed.
+	 */
+	public void itemRemoved(ArenaItem item) {
+		liveEntities.computeIfPresent(item.getClass().getSimpleName(), (type, n) -> n > 1 ? n - 1 : null);
+		if (item instanceof Bullet) {
+			bulletsDestroyed++;
+		}
+	}
+
+	/**
+	 * Counts every item being removed from the arena.
+	 */
+	public void itemsCleared() {
+		liveEntities.clear();
+	}
+
+	/**
+	 * Getter - Provides how many ticks have run.
+	 * @return Number of ticks.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Getter - Provides how many ticks ran a second, over about the last second.
+	 * @return Ticks per second.
+	 */
+	public double getTicksPerSecond() {
+		return ticksPerSecond;
+	}
+
+	/**
+	 * Getter - Provides how long the median tick took.
+	 * @return Microseconds half of ticks took no longer than.
+	 */
+	public double getTickLatencyP50Micros() {
+		return tickLatency.percentile(50) / 1000;
+	}
+
+	/**
+	 * Getter - Provides how long the slowest 1% of ticks took.
+	 * @return Microseconds 99% of ticks took no longer than.
+	 */
+	public double getTickLatencyP99Micros() {
+		return tickLatency.percentile(99) / 1000;
+	}
+
+	/**
+	 * Getter - Provides how long the slowest tick took.
+	 * @return Microseconds of the slowest tick.
+	 */
+	public double getTickLatencyMaxMicros() {
+		return tickLatency.getMax() / 1000;
+	}
+
+	/**
+	 * Getter - Provides how long ticks have taken.
+	 * @return Histogram of nanoseconds per tick.
+	 */
+	public Histogram getTickLatency() {
+		return tickLatency;
+	}
+
+	/**
+	 * Getter - Provides how many collisions were found in the last tick.
+	 * @return Number of collisions.
+	 */
+	public int getCollisionsLastTick() {
+		return collisionsLastTick;
+	}
+
+	/**
+	 * Getter - Provides how many collisions were found in an average tick.
+	 * @return Mean collisions per tick.
+	 */
+	public double getCollisionsPerTick() {
+		return ticks == 0 ? 0 : (double) collisions / ticks;
+	}
+
+	/**
+	 * Getter - Provides how many robots have been eaten by hungry robots.
+	 * @return Number of robots eaten.
+	 */
+	public long getRobotsEaten() {
+		return robotsEaten;
+	}
+
+	/**
+	 * Getter - Provides how many bullets have been shot.
+	 * @return Number of bullets shot.
+	 */
+	public long getBulletsFired() {
+		return bulletsFired;
+	}
+
+	/**
+	 * Getter - Provides how many bullets have been removed from the arena.
+	 * @return Number of bullets removed.
+	 */
+	public long getBulletsDestroyed() {
+		return bulletsDestroyed;
+	}
+
+	/**
+	 * Getter - Provides how many robots have been infected with party mode.
+	 * @return Number of infections.
+	 */
+	public long getPartyInfections() {
+		return partyInfections;
+	}
+
+	/**
+	 * Getter - Provides how many items are in the arena.
+	 * @return Number of items.
+	 */
+	public int getLiveEntityCount() {
+		int total = 0;
+		for (int n : liveEntities.values()) {
+			total += n;
+		}
+		return total;
+	}
+
+	/**
+	 * Getter - Provides how many items of each type are in the arena.
+	 * @return Class name of each type and its count, such as {Obstacle=2, Robot=5}.
+	 */
+	public String getLiveEntityCounts() {
+		return getLiveEntityCountMap().toString();
+	}
+
+	/**
+	 * Getter - Provides how many items of each type are in the arena, sorted by type.
+	 * @return Map of class name to count.
+	 */
+	public TreeMap<String, Integer> getLiveEntityCountMap() {
+		return new TreeMap<>(liveEntities);
+	}
+
+	/**
+	 * Getter - Provides how much memory the last tick allocated.
+	 * @return Bytes allocated, 0 if the JVM can't measure it.
+	 */
+	public long getAllocatedBytesLastTick() {
+		return allocatedLastTick;
+	}
+
+	/**
+	 * Getter - Provides how much memory an average tick allocated.
+	 * @return Mean bytes allocated per tick, 0 if the JVM can't measure it.
+	 */
+	public double getAllocatedBytesPerTick() {
+		return ticks == 0 ? 0 : (double) allocatedTotal / ticks;
+	}
+
+	/**
+	 * Sets every count back to 0, except the items in the arena.
+	 */
+	public void reset() {
+		ticks = 0;
+		robotsEaten = 0;
+		bulletsFired = 0;
+		bulletsDestroyed = 0;
+		partyInfections = 0;
+		collisions = 0;
+		collisionsLastTick = 0;
+		allocatedLastTick = 0;
+		allocatedTotal = 0;
+		tickLatency.clear();
+	}
+}
@@ -0,0 +1,103 @@
+package RobotProjectGUI;
+
+/**
+ *
+ * @author dijan
+ * Interface of the simulation's metrics as seen through JMX, such as in JConsole or VisualVM.
+ */
+public interface SimulationMetricsMBean {
+	/**
+	 * Getter - Provides how many ticks have run.
+	 * @return Number of ticks.
+	 */
+	long getTicks();
+
+	/**
+	 * Getter - Provides how many ticks ran a second, over about the last second.
+	 * @return Ticks per second.
+	 */
+	double getTicksPerSecond();
+
+	/**
+	 * Getter - Provides how long the median tick took.
+	 * @return Microseconds half of ticks took no longer than.
+	 */
+	double getTickLatencyP50Micros();
+
+	/**
+	 * Getter - Provides how long the slowest 1% of ticks took.
+	 * @return Microseconds 99% of ticks took no longer than.
+	 */
+	double getTickLatencyP99Micros();
+
+	/**
+	 * Getter - Provides how long the slowest tick took.
+	 * @return Microseconds of the slowest tick.
+	 */
+	double getTickLatencyMaxMicros();
+
+	/**
+	 * Getter - Provides how many collisions were found in the last tick.
+	 * @return Number of collisions.
+	 */
+	int getCollisionsLastTick();
+
+	/**
+	 * Getter - Provides how many collisions were found in an average tick.
+	 * @return Mean collisions per tick.
+	 */
+	double getCollisionsPerTick();
+
+	/**
+	 * Getter - Provides how many robots have been eaten by hungry robots.
+	 * @return Number of robots eaten.
+	 */
+	long getRobotsEaten();
+
+	/**
+	 * Getter - Provides how many bullets have been shot.
+	 * @return Number of bullets shot.
+	 */
+	long getBulletsFired();
+
+	/**
+	 * Getter - Provides how many bullets have been removed from the arena.
+	 * @return Number of bullets removed.
+	 */
+	long getBulletsDestroyed();
+
+	/**
+	 * Getter - Provides how many robots have been infected with party mode.
+	 * @return Number of infections.
+	 */
+	long getPartyInfections();
+
+	/**
+	 * Getter - Provides how many items are in the arena.
+	 * @return Number of items.
+	 */
+	int getLiveEntityCount();
+
+	/**
+	 * Getter - Provides how many items of each type are in the arena.
+	 * @return Class name of each type and its count, such as {Obstacle=2, Robot=5}.
+	 */
+	String getLiveEntityCounts();
+
+	/**
+	 * Getter - Provides how much memory the last tick allocated.
+	 * @return Bytes allocated, 0 if the JVM can't measure it.
+	 */
+	long getAllocatedBytesLastTick();
+
+	/**
+	 * Getter - Provides how much memory an average tick allocated.
+	 * @return Mean bytes allocated per tick, 0 if the JVM can't measure it.
+	 */
+	double getAllocatedBytesPerTick();
+
+	/**
+	 * Sets every count back to 0, except the items in the arena.
+	 */
+	void reset();
+}
@@ -0,0 +1,117 @@
+package RobotProjectGUI;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ *
+ * @author dijan
+ * Class that holds items in a dense array where each item remembers its own index (its slot), so removing an
+ * item moves the last item into its place rather than searching for it and shifting everything after it.
+ * Removing and checking if an item is in the list are both constant time, but removing changes the order.
+ * An item can be in one list of each kind at once, eg the arena's list, the robots and the hungry robots.
+ * @param <T> Type of item held.
+ */
+public class SlotList<T extends ArenaItem> extends AbstractList<T> implements RandomAccess {
+	static final int ALL = 0; // every item in an arena
+	static final int TYPE = 1; // robots or obstacles
+	static final int SUBTYPE = 2; // controllable robots, hungry robots or party obstacles
+	static final int KINDS = 3;
+	private ArenaItem[] items = new ArenaItem[16];
+	private int count;
+	private int kind; // which of the item's slots this list uses
+
+	/**
+	 * Constructor for an empty list.
+	 * @param _kind Which slot of each item the list uses, one of ALL, TYPE or SUBTYPE.
+	 */
+	SlotList(int _kind){
+		kind = _kind;
+	}
+
+	/**
+	 * Adds an item to the end of the list.
+	 * @param item Item being added, which can't already be in a list of this kind.
+	 * @return Always true.
+	 */
+	@Override
+	public boolean add(T item) {
+		if (count == items.length) {
+			ArenaItem[] larger = new ArenaItem[items.length*2];
+			System.arraycopy(items, 0, larger, 0, count);
+			items = larger;
+		}
+		item.setSlot(kind, count);
+		items[count++] = item;
+		return true;
+	}
+
+	/**
+	 * Removes an item, moving the last item into its place.
+	 * @param o Item being removed.
+	 * @return If the item was in the list.
+	 */
+	@Override
+	public boolean remove(Object o) {
+		if (!contains(o)) {
+			return false;
+		}
+		ArenaItem item = (ArenaItem) o;
+		int slot = item.getSlot(kind);
+		ArenaItem last = items[--count];
+		items[slot] = last;
+		last.setSlot(kind, slot);
+		items[count] = null;
+		item.setSlot(kind, -1);
+		return true;
+	}
+
+	/**
+	 * Checks if an item is in the list by looking at its slot.
+	 * @param o Item being checked.
+	 * @return If the item is in the list.
+	 */
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof ArenaItem)) {
+			return false;
+		}
+		int slot = ((ArenaItem) o).getSlot(kind);
+		return slot >= 0 && slot < count && items[slot] == o;
+	}
+
+	/**
+	 * Empties the list.
+	 */
+	@Override
+	public void clear() {
+		for (int i=0; i<count; i++) {
+			items[i].setSlot(kind, -1);
+			items[i] = null;
+		}
+		count = 0;
+	}
+
+	/**
+	 * Getter - Provides the item in a slot.
+	 * @param index Slot, from 0 to size()-1.
+	 * @return Item in the slot.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public T get(int index) {
+		if (index >= count) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		return (T) items[index];
+	}
+
+	/**
+	 * Getter - Provides the number of items in the list.
+	 * @return Number of items.
+	 */
+	@Override
+	public int size() {
+		return count;
+	}
+}
@@ -0,0 +1,246 @@
+package RobotProjectGUI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ *
+ * @author dijan
+ * Class that sorts items into a uniform grid of cells by their centre, so that finding the items
+ * in an area only needs to look at the cells covering it rather than every item in the arena.
+ * The grid is rebuilt from scratch, with one counting pass and one filling pass over the items.
+ * It can also find the items closest to a point, looking in rings of cells outwards from the point's cell
+ * and stopping once nothing further out could be closer than what has been found.
+ */
+public class SpatialGrid {
+	static final double DEFAULT_CELL_SIZE = 64; // width and height of each cell
+	private double cellSize;
+	private int columns, rows;
+	private int[] cellStart; // index into cellItems where each cell's items start, one extra at the end
+	private int[] cellItems; // item indexes, grouped by cell
+	private int[] nextSlot; // where the next item of each cell goes while rebuilding
+	private ArenaItem[] items = new ArenaItem[0]; // items as they were when the grid was built
+	private int itemCount;
+	private double maxExtent; // furthest any item reaches from its centre, used to widen queries
+	private ArenaItem[] nearestItems = new ArenaItem[0]; // closest items found so far by nearest, closest first
+	private double[] nearestDistances = new double[0]; // squared distance to each of them
+	private int[] nearestSlots = new int[0]; // where each of them is in the arena, to order items the same distance away
+
+	/**
+	 * Constructor for a grid covering an area, using the default cell size.
+	 * @param width Width of the area.
+	 * @param height Height of the area.
+	 */
+	SpatialGrid(double width, double height){
+		this(width, height, DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * Constructor for a grid covering an area.
+	 * @param width Width of the area.
+	 * @param height Height of the area.
+	 * @param _cellSize Width and height of each cell.
+	 */
+	SpatialGrid(double width, double height, double _cellSize){
+		cellSize = _cellSize;
+		columns = Math.max(1, (int) Math.ceil(width / cellSize));
+		rows = Math.max(1, (int) Math.ceil(height / cellSize));
+		cellStart = new int[columns*rows + 1];
+		nextSlot = new int[columns*rows];
+		cellItems = new int[0];
+	}
+
+	/**
+	 * Sorts the items into their cells, replacing whatever was in the grid before.
+	 * @param list Items to put in the grid.
+	 */
+	public void rebuild(List<? extends ArenaItem> list) {
+		itemCount = list.size();
+		if (items.length < itemCount) {
+			items = new ArenaItem[Math.max(itemCount, items.length*2)];
+			cellItems = new int[items.length];
+		}
+		Arrays.fill(cellStart, 0);
+		maxExtent = 0;
+		for (int i=0; i<itemCount; i++) { // count how many items are in each cell
+			ArenaItem item = list.get(i);
+			items[i] = item;
+			cellStart[cellOf(item.getX(), item.getY()) + 1]++;
+			maxExtent = Math.max(maxExtent, item.getDrawExtent());
+		}
+		for (int c=0; c<columns*rows; c++) { // turn counts into start positions
+			cellStart[c+1] += cellStart[c];
+		}
+		System.arraycopy(cellStart, 0, nextSlot, 0, columns*rows);
+		for (int i=0; i<itemCount; i++) { // place each item in its cell
+			cellItems[nextSlot[cellOf(items[i].getX(), items[i].getY())]++] = i;
+		}
+		for (int i=itemCount; i<items.length && items[i] != null; i++) {
+			items[i] = null; // don't hold on to items that have been removed
+		}
+	}
+
+	/**
+	 * Finds every item whose drawn area overlaps a rectangle.
+	 * @param minX Left edge.
+	 * @param minY Top edge.
+	 * @param maxX Right edge.
+	 * @param maxY Bottom edge.
+	 * @param out List the items are added to.
+	 */
+	public void query(double minX, double minY, double maxX, double maxY, ArrayList<ArenaItem> out) {
+		// items are stored by their centre, so look in cells far enough out to catch anything reaching in
+		int minColumn = clampColumn(minX - maxExtent);
+		int maxColumn = clampColumn(maxX + maxExtent);
+		int minRow = clampRow(minY - maxExtent);
+		int maxRow = clampRow(maxY + maxExtent);
+		for (int row=minRow; row<=maxRow; row++) {
+			for (int column=minColumn; column<=maxColumn; column++) {
+				int cell = row*columns + column;
+				for (int i=cellStart[cell]; i<cellStart[cell+1]; i++) {
+					ArenaItem item = items[cellItems[i]];
+					double extent = item.getDrawExtent();
+					if (item.getX() + extent >= minX && item.getX() - extent <= maxX
+							&& item.getY() + extent >= minY && item.getY() - extent <= maxY) {
+						out.add(item);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds every item whose centre is within a distance of a point, in no particular order.
+	 * @param x Point's x position.
+	 * @param y Point's y position.
+	 * @param distance How close an item's centre has to be.
+	 * @param out List the items are added to.
+	 */
+	public void within(double x, double y, double distance, ArrayList<ArenaItem> out) {
+		int from = out.size();
+		query(x - distance, y - distance, x + distance, y + distance, out);
+		int kept = from;
+		for (int i=from; i<out.size(); i++) {
+			ArenaItem item = out.get(i);
+			double dx = item.getX() - x, dy = item.getY() - y;
+			if (dx*dx + dy*dy <= distance*distance) {
+				out.set(kept++, item);
+			}
+		}
+		out.subList(kept, out.size()).clear(); // query also finds items that only reach into the area
+	}
+
+	/**
+	 * Finds the items whose centres are closest to a point, closest first. Items the same distance away are
+	 * given in arena order.
+	 * @param x Point's x position.
+	 * @param y Point's y position.
+	 * @param k Most items found.
+	 * @param maxDistance Furthest an item's centre can be.
+	 * @param filter Which items can be found, null for any.
+	 * @param out List the items are added to.
+	 */
+	public void nearest(double x, double y, int k, double maxDistance, Predicate<ArenaItem> filter, List<ArenaItem> out) {
+		if (k <= 0) {
+			return;
+		}
+		if (nearestItems.length < k) {
+			nearestItems = new ArenaItem[k];
+			nearestDistances = new double[k];
+			nearestSlots = new int[k];
+		}
+		int found = 0;
+		double limit = maxDistance*maxDistance;
+		int column = clampColumn(x), row = clampRow(y);
+		int lastRing = Math.max(columns, rows);
+		for (int ring=0; ring<=lastRing; ring++) {
+			if (ring > 0) {
+				// closest anything in this ring or further out can be, the edge of the rings already looked in
+				double edge = Math.min(Math.min(x - (column - ring + 1)*cellSize, (column + ring)*cellSize - x),
+						Math.min(y - (row - ring + 1)*cellSize, (row + ring)*cellSize - y));
+				if (edge > 0 && (edge*edge > limit || found == k && edge*edge > nearestDistances[k-1])) {
+					break;
+				}
+			}
+			for (int r=Math.max(0, row - ring); r<=Math.min(rows - 1, row + ring); r++) {
+				boolean wholeRow = r == row - ring || r == row + ring; // top and bottom of the ring, the rest only has its ends
+				int step = wholeRow ? 1 : Math.max(1, 2*ring);
+				for (int c=column - ring; c<=column + ring; c+=step) {
+					if (c < 0 || c >= columns) {
+						continue;
+					}
+					int cell = r*columns + c;
+					for (int i=cellStart[cell]; i<cellStart[cell+1]; i++) {
+						ArenaItem item = items[cellItems[i]];
+						double dx = item.getX() - x, dy = item.getY() - y;
+						double distance = dx*dx + dy*dy;
+						int slot = item.getSlot(SlotList.ALL);
+						if (distance > limit || found == k && !closer(distance, slot, k - 1)
+								|| filter != null && !filter.test(item)) {
+							continue;
+						}
+						int at = found < k ? found++ : k - 1; // the furthest is dropped when full
+						while (at > 0 && closer(distance, slot, at - 1)) {
+							nearestItems[at] = nearestItems[at-1];
+							nearestDistances[at] = nearestDistances[at-1];
+							nearestSlots[at] = nearestSlots[at-1];
+							at--;
+						}
+						nearestItems[at] = item;
+						nearestDistances[at] = distance;
+						nearestSlots[at] = slot;
+					}
+				}
+			}
+		}
+		for (int i=0; i<found; i++) {
+			out.add(nearestItems[i]);
+			nearestItems[i] = null; // don't hold on to items that may be removed
+		}
+	}
+
+	/**
+	 * Checks if an item is closer than one already found, items the same distance away go in arena order.
+	 */
+	private boolean closer(double distance, int slot, int found) {
+		return distance < nearestDistances[found] || distance == nearestDistances[found] && slot < nearestSlots[found];
+	}
+
+	/**
+	 * Finds which cell a point is in, points outside the grid go in the nearest edge cell.
+	 * @param x Point's x position.
+	 * @param y Point's y position.
+	 * @return Index of the cell.
+	 */
+	private int cellOf(double x, double y) {
+		return clampRow(y)*columns + clampColumn(x);
+	}
+
+	/**
+	 * Finds which column an x position is in.
+	 * @param x The x position.
+	 * @return Column, kept within the grid.
+	 */
+	private int clampColumn(double x) {
+		return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellSize)));
+	}
+
+	/**
+	 * Finds which row a y position is in.
+	 * @param y The y position.
+	 * @return Row, kept within the grid.
+	 */
+	private int clampRow(double y) {
+		return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+	}
+
+	/**
+	 * Getter - Provides the number of items in the grid.
+	 * @return Number of items.
+	 */
+	public int size() {
+		return itemCount;
+	}
+}
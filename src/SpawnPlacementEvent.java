@@ -0,0 +1,23 @@
+package RobotProjectGUI;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *
+ * @author dijan
+ * Flight recorder event for placing a new item at a random free position, from the ArenaItem constructor.
+ */
+@Name("RobotProjectGUI.SpawnPlacement")
+@Label("Spawn Placement")
+@Category("Robot Simulation")
+@Description("Finding a free position for a new item")
+public class SpawnPlacementEvent extends jdk.jfr.Event {
+	@Label("Item Type")
+	String itemType;
+
+	@Label("Attempts")
+	int attempts;
+}
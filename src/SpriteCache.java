@@ -0,0 +1,195 @@
+package RobotProjectGUI;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ *
+ * @author dijan
+ * Class that keeps pre-rendered images of robots, so a robot can be drawn with a single image
+ * rather than a body, two wheels and a rotated canvas every frame. Each combination of robot type,
+ * colour, size and angle is rendered once, and the least recently used images are thrown away
+ * when the cache holds too many pixels (growing hungry robots make ever larger images).
+ */
+public class SpriteCache {
+	static final int ANGLE_STEP = 5; // angles are rounded to this many degrees
+	static final long DEFAULT_PIXEL_BUDGET = 4L * 1024 * 1024; // most pixels kept at once, 16MB of images
+	private static final int ROBOT = 0, WHISKER_ROBOT = 1; // types of sprite
+
+	private LinkedHashMap<Long, WritableImage> sprites; // kept in order of use, for LRU eviction
+	private Canvas scratch; // off screen canvas that sprites are rendered on
+	private MyCanvas scratchCanvas;
+	private SnapshotParameters params;
+	private long pixelBudget; // most pixels kept before the least recently used images are evicted
+	private long pixels; // pixels currently kept
+	private int hits, misses;
+
+	/**
+	 * Default constructor, uses the default pixel budget.
+	 */
+	SpriteCache(){
+		this(DEFAULT_PIXEL_BUDGET);
+	}
+
+	/**
+	 * Constructor for a sprite cache holding at most the given number of pixels.
+	 * @param _pixelBudget Most pixels kept before the least recently used images are evicted.
+	 */
+	SpriteCache(long _pixelBudget){
+		pixelBudget = _pixelBudget;
+		sprites = new LinkedHashMap<>(256, 0.75f, true); // access order, so eldest is least recently used
+		params = new SnapshotParameters();
+		params.setFill(Color.TRANSPARENT); // so only the robot is copied onto the canvas
+	}
+
+	/**
+	 * Draws a robot using its cached image, rendering the image first if it hasn't been seen before.
+	 * @param mc Canvas the robot is drawn onto.
+	 * @param x Robot's x position.
+	 * @param y Robot's y position.
+	 * @param height Robot's wheel height.
+	 * @param width Robot's wheel width.
+	 * @param rad Robot's radius.
+	 * @param angle Robot's angle.
+	 * @param col Robot's colour.
+	 */
+	public void drawRobot(MyCanvas mc, double x, double y, double height, double width, double rad, double angle, char col) {
+		draw(mc, ROBOT, x, y, height, width, rad, angle, col);
+	}
+
+	/**
+	 * Draws a whisker robot using its cached image, rendering the image first if it hasn't been seen before.
+	 * @param mc Canvas the robot is drawn onto.
+	 * @param x Robot's x position.
+	 * @param y Robot's y position.
+	 * @param height Robot's wheel height.
+	 * @param width Robot's wheel width.
+	 * @param rad Robot's radius.
+	 * @param angle Robot's angle.
+	 * @param col Robot's colour.
+	 */
+	public void drawWhiskerRobot(MyCanvas mc, double x, double y, double height, double width, double rad, double angle, char col) {
+		draw(mc, WHISKER_ROBOT, x, y, height, width, rad, angle, col);
+	}
+
+	/**
+	 * Looks up (or renders) the sprite and draws it centred on the robot.
+	 */
+	private void draw(MyCanvas mc, int type, double x, double y, double height, double width, double rad, double angle, char col) {
+		int angleStep = Math.floorMod((int) Math.round(angle / ANGLE_STEP), 360 / ANGLE_STEP);
+		long key = spriteKey(type, col, rad, width, height, angleStep);
+		WritableImage sprite = sprites.get(key);
+		if (sprite == null) {
+			misses++;
+			sprite = render(type, height, width, rad, angleStep * ANGLE_STEP, col);
+			sprites.put(key, sprite);
+			pixels += pixelCount(sprite);
+			evict();
+		} else {
+			hits++;
+		}
+		mc.drawImage(sprite, x, y, sprite.getWidth());
+	}
+
+	/**
+	 * Packs everything that changes how a sprite looks into one number.
+	 * Sizes are stored to a quarter of a pixel, which is more than the canvas can show.
+	 * @return Key used in the cache.
+	 */
+	private static long spriteKey(int type, char col, double rad, double width, double height, int angleStep) {
+		long key = type;
+		key = (key << 8) | (col & 0xff);
+		key = (key << 16) | (Math.round(rad*4) & 0xffff);
+		key = (key << 16) | (Math.round(width*4) & 0xffff);
+		key = (key << 12) | (Math.round(height*4) & 0xfff);
+		key = (key << 9) | angleStep;
+		return key;
+	}
+
+	/**
+	 * Throws away the least recently used images until the cache is back within its budget.
+	 * The newest image is always kept, even if it is larger than the budget by itself.
+	 */
+	private void evict() {
+		Iterator<WritableImage> eldest = sprites.values().iterator();
+		while (pixels > pixelBudget && sprites.size() > 1) {
+			pixels -= pixelCount(eldest.next());
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * Calculates how many pixels an image holds.
+	 * @param sprite Image being measured.
+	 * @return Width times height of the image.
+	 */
+	private static long pixelCount(WritableImage sprite) {
+		return (long) sprite.getWidth() * (long) sprite.getHeight();
+	}
+
+	/**
+	 * Renders a robot onto the scratch canvas and copies it into a new image.
+	 * @return Image of the robot, square with the robot in the centre.
+	 */
+	private WritableImage render(int type, double height, double width, double rad, double angle, char col) {
+		double reach = Math.hypot(rad, Math.max(rad, width - rad)); // furthest corner of a wheel
+		if (type == WHISKER_ROBOT) {
+			reach = Math.max(reach, Math.hypot(rad + 15, rad + height + 15)); // end of the whiskers
+		}
+		int size = 2 * (int) Math.ceil(reach + 1);
+		if (scratch == null || scratch.getWidth() < size) {
+			scratch = new Canvas(size, size);
+			scratchCanvas = new MyCanvas(scratch.getGraphicsContext2D(), size, size);
+			scratchCanvas.setLevelOfDetail(false); // sprites are always rendered in full
+		}
+		scratchCanvas.clearCanvas();
+		double centre = size / 2.0;
+		if (type == WHISKER_ROBOT) {
+			scratchCanvas.showWhiskerRobot(centre, centre, height, width, rad, angle, col);
+		} else {
+			scratchCanvas.showRobot(centre, centre, height, width, rad, angle, col);
+		}
+		WritableImage sprite = new WritableImage(size, size);
+		params.setViewport(new Rectangle2D(0, 0, size, size));
+		scratch.snapshot(params, sprite);
+		return sprite;
+	}
+
+	/**
+	 * Getter - Provides how many images are currently kept.
+	 * @return Number of cached images.
+	 */
+	public int size() {
+		return sprites.size();
+	}
+
+	/**
+	 * Getter - Provides how many draws used an image that was already cached.
+	 * @return Number of cache hits.
+	 */
+	public int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Getter - Provides how many draws needed a new image to be rendered.
+	 * @return Number of cache misses.
+	 */
+	public int getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Throws away every cached image.
+	 */
+	public void clear() {
+		sprites.clear();
+		pixels = 0;
+	}
+}
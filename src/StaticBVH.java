@@ -0,0 +1,342 @@
+package RobotProjectGUI;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ *
+ * @author dijan
+ * Class that holds the items that never move, such as obstacles, in a bounding volume hierarchy: a tree of
+ * boxes where each box holds the boxes or items inside it. Finding what a robot touches only opens the boxes
+ * it overlaps. The tree is built when obstacles are added or removed, and when one is dragged the boxes are
+ * only resized (refitted) to fit it, rather than building the tree again.
+ */
+public class StaticBVH {
+	private static final int LEAF_SIZE = 4; // most items in a box with no boxes inside it
+	private static final Comparator<ArenaItem> BY_X = Comparator.comparingDouble(ArenaItem::getX);
+	private static final Comparator<ArenaItem> BY_Y = Comparator.comparingDouble(ArenaItem::getY);
+	private ArenaItem[] items = new ArenaItem[0]; // items, each leaf holds a run of them
+	private int itemCount;
+	private double[] minX = new double[0], minY = new double[0], maxX = new double[0], maxY = new double[0]; // box of each node
+	private int[] left = new int[0]; // first child of each node, the second is right after it, -1 for leaves
+	private int[] first = new int[0], count = new int[0]; // run of items in each leaf
+	private int nodeCount;
+	private int[] stack = new int[64]; // nodes waiting to be opened during a query
+	private boolean stale = true; // if items have been added or removed since the tree was built
+	private boolean moved; // if items have been dragged since the boxes were fitted
+	private int lastTests; // items checked by the last query
+	private int version; // changed each time the tree is built or refitted, so results kept from it can be checked
+	private ArenaItem[] nearestItems = new ArenaItem[0]; // closest items found so far by nearest, closest first
+	private double[] nearestDistances = new double[0]; // squared distance to each of them
+
+	/**
+	 * Builds the tree again if items have been added or removed, or refits it if they have been moved.
+	 * @param list Every static item in the arena.
+	 */
+	public void update(List<? extends ArenaItem> list) {
+		if (stale) {
+			build(list);
+		} else if (moved) {
+			refit();
+		}
+	}
+
+	/**
+	 * Builds the tree from scratch, splitting each box in half along its longer side.
+	 * @param list Items to put in the tree.
+	 */
+	public void build(List<? extends ArenaItem> list) {
+		itemCount = list.size();
+		if (items.length < itemCount) {
+			items = new ArenaItem[Math.max(itemCount, items.length*2)];
+		}
+		for (int i=0; i<itemCount; i++) {
+			items[i] = list.get(i);
+		}
+		for (int i=itemCount; i<items.length && items[i] != null; i++) {
+			items[i] = null; // don't hold on to items that have been removed
+		}
+		int maxNodes = Math.max(1, 2*itemCount);
+		if (left.length < maxNodes) {
+			minX = new double[maxNodes];
+			minY = new double[maxNodes];
+			maxX = new double[maxNodes];
+			maxY = new double[maxNodes];
+			left = new int[maxNodes];
+			first = new int[maxNodes];
+			count = new int[maxNodes];
+		}
+		nodeCount = 1;
+		buildNode(0, 0, itemCount);
+		version++;
+		stale = false;
+		moved = false;
+	}
+
+	/**
+	 * Fits a node's box around a run of items, splitting it into two children if there are too many.
+	 */
+	private void buildNode(int node, int from, int to) {
+		fitItems(node, from, to);
+		if (to - from <= LEAF_SIZE) {
+			left[node] = -1;
+			first[node] = from;
+			count[node] = to - from;
+			return;
+		}
+		boolean wide = maxX[node] - minX[node] >= maxY[node] - minY[node];
+		Arrays.sort(items, from, to, wide ? BY_X : BY_Y);
+		int middle = (from + to) >>> 1;
+		int child = nodeCount;
+		nodeCount += 2;
+		left[node] = child;
+		buildNode(child, from, middle);
+		buildNode(child + 1, middle, to);
+	}
+
+	/**
+	 * Resizes every box to fit the items where they are now, keeping the same tree. Children always come
+	 * after their parent, so going through the nodes backwards fits children first.
+	 */
+	public void refit() {
+		for (int node=nodeCount-1; node>=0; node--) {
+			if (left[node] < 0) {
+				fitItems(node, first[node], first[node] + count[node]);
+			} else {
+				int a = left[node], b = left[node] + 1;
+				minX[node] = Math.min(minX[a], minX[b]);
+				minY[node] = Math.min(minY[a], minY[b]);
+				maxX[node] = Math.max(maxX[a], maxX[b]);
+				maxY[node] = Math.max(maxY[a], maxY[b]);
+			}
+		}
+		version++;
+		moved = false;
+	}
+
+	/**
+	 * Sets a node's box to just fit a run of items.
+	 */
+	private void fitItems(int node, int from, int to) {
+		minX[node] = Double.MAX_VALUE;
+		minY[node] = Double.MAX_VALUE;
+		maxX[node] = -Double.MAX_VALUE;
+		maxY[node] = -Double.MAX_VALUE;
+		for (int i=from; i<to; i++) {
+			ArenaItem item = items[i];
+			minX[node] = Math.min(minX[node], item.getX() - item.getRadius());
+			minY[node] = Math.min(minY[node], item.getY() - item.getRadius());
+			maxX[node] = Math.max(maxX[node], item.getX() + item.getRadius());
+			maxY[node] = Math.max(maxY[node], item.getY() + item.getRadius());
+		}
+	}
+
+	/**
+	 * Finds the item in the tree touching another item that comes first in the arena.
+	 * @param item Item being checked, usually a robot.
+	 * @return The touching item first in the arena, null if it isn't touching any.
+	 */
+	public ArenaItem firstHit(ArenaItem item) {
+		lastTests = 0;
+		if (itemCount == 0) {
+			return null;
+		}
+		double x = item.getX(), y = item.getY(), radius = item.getRadius();
+		ArenaItem best = null;
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			if (x + radius < minX[node] || x - radius > maxX[node] || y + radius < minY[node] || y - radius > maxY[node]) {
+				continue; // can't touch anything in this box
+			}
+			if (left[node] < 0) {
+				for (int i=first[node]; i<first[node]+count[node]; i++) {
+					ArenaItem other = items[i];
+					if (other == item) {
+						continue;
+					}
+					lastTests++;
+					if (item.isCollision(other) && (best == null || other.getSlot(SlotList.ALL) < best.getSlot(SlotList.ALL))) {
+						best = other;
+					}
+				}
+			} else {
+				if (top + 2 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length*2);
+				}
+				stack[top++] = left[node];
+				stack[top++] = left[node] + 1;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Finds the items in the tree whose boxes overlap a rectangle.
+	 * @param queryMinX Left edge.
+	 * @param queryMinY Top edge.
+	 * @param queryMaxX Right edge.
+	 * @param queryMaxY Bottom edge.
+	 * @param out List the items are added to.
+	 */
+	public void query(double queryMinX, double queryMinY, double queryMaxX, double queryMaxY, List<ArenaItem> out) {
+		if (itemCount == 0) {
+			return;
+		}
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			if (queryMaxX < minX[node] || queryMinX > maxX[node] || queryMaxY < minY[node] || queryMinY > maxY[node]) {
+				continue;
+			}
+			if (left[node] < 0) {
+				for (int i=first[node]; i<first[node]+count[node]; i++) {
+					ArenaItem item = items[i];
+					if (item.getX() + item.getRadius() >= queryMinX && item.getX() - item.getRadius() <= queryMaxX
+							&& item.getY() + item.getRadius() >= queryMinY && item.getY() - item.getRadius() <= queryMaxY) {
+						out.add(item);
+					}
+				}
+			} else {
+				if (top + 2 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length*2);
+				}
+				stack[top++] = left[node];
+				stack[top++] = left[node] + 1;
+			}
+		}
+	}
+
+	/**
+	 * Finds every item in the tree whose centre is within a distance of a point, in no particular order.
+	 * @param x Point's x position.
+	 * @param y Point's y position.
+	 * @param distance How close an item's centre has to be.
+	 * @param out List the items are added to.
+	 */
+	public void within(double x, double y, double distance, List<ArenaItem> out) {
+		int from = out.size();
+		query(x - distance, y - distance, x + distance, y + distance, out);
+		int kept = from;
+		for (int i=from; i<out.size(); i++) {
+			ArenaItem item = out.get(i);
+			double dx = item.getX() - x, dy = item.getY() - y;
+			if (dx*dx + dy*dy <= distance*distance) {
+				out.set(kept++, item);
+			}
+		}
+		out.subList(kept, out.size()).clear(); // query also finds items that only reach into the area
+	}
+
+	/**
+	 * Finds the items in the tree whose centres are closest to a point, closest first, only opening boxes
+	 * that could hold something closer than what has been found. Items the same distance away are given in
+	 * arena order.
+	 * @param x Point's x position.
+	 * @param y Point's y position.
+	 * @param k Most items found.
+	 * @param maxDistance Furthest an item's centre can be.
+	 * @param filter Which items can be found, null for any.
+	 * @param out List the items are added to.
+	 */
+	public void nearest(double x, double y, int k, double maxDistance, Predicate<ArenaItem> filter, List<ArenaItem> out) {
+		if (itemCount == 0 || k <= 0) {
+			return;
+		}
+		if (nearestItems.length < k) {
+			nearestItems = new ArenaItem[k];
+			nearestDistances = new double[k];
+		}
+		int found = 0;
+		double limit = maxDistance*maxDistance;
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			double dx = Math.max(0, Math.max(minX[node] - x, x - maxX[node]));
+			double dy = Math.max(0, Math.max(minY[node] - y, y - maxY[node]));
+			double boxDistance = dx*dx + dy*dy; // every centre in the box is at least this far
+			if (boxDistance > limit || found == k && boxDistance > nearestDistances[k-1]) {
+				continue;
+			}
+			if (left[node] < 0) {
+				for (int i=first[node]; i<first[node]+count[node]; i++) {
+					ArenaItem item = items[i];
+					double ix = item.getX() - x, iy = item.getY() - y;
+					double distance = ix*ix + iy*iy;
+					if (distance > limit || found == k && !closer(distance, item, k - 1) || filter != null && !filter.test(item)) {
+						continue;
+					}
+					int at = found < k ? found++ : k - 1; // the furthest is dropped when full
+					while (at > 0 && closer(distance, item, at - 1)) {
+						nearestItems[at] = nearestItems[at-1];
+						nearestDistances[at] = nearestDistances[at-1];
+						at--;
+					}
+					nearestItems[at] = item;
+					nearestDistances[at] = distance;
+				}
+			} else {
+				if (top + 2 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length*2);
+				}
+				stack[top++] = left[node];
+				stack[top++] = left[node] + 1;
+			}
+		}
+		for (int i=0; i<found; i++) {
+			out.add(nearestItems[i]);
+			nearestItems[i] = null; // don't hold on to items that may be removed
+		}
+	}
+
+	/**
+	 * Checks if an item is closer than one already found, items the same distance away go in arena order.
+	 */
+	private boolean closer(double distance, ArenaItem item, int found) {
+		return distance < nearestDistances[found]
+				|| distance == nearestDistances[found] && item.getSlot(SlotList.ALL) < nearestItems[found].getSlot(SlotList.ALL);
+	}
+
+	/**
+	 * Marks the tree as needing building again, such as when an item has been added or removed.
+	 */
+	public void markStale() {
+		stale = true;
+	}
+
+	/**
+	 * Marks the boxes as needing refitting, such as when an item has been dragged.
+	 */
+	public void markMoved() {
+		moved = true;
+	}
+
+	/**
+	 * Getter - Provides how many items the last query checked.
+	 * @return Number of items checked.
+	 */
+	public int getLastTests() {
+		return lastTests;
+	}
+
+	/**
+	 * Getter - Provides which build or refit the tree is on.
+	 * @return Version of the tree, changed each time it is built or refitted.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Getter - Provides the number of items in the tree.
+	 * @return Number of items.
+	 */
+	public int size() {
+		return itemCount;
+	}
+}
@@ -0,0 +1,111 @@
+package RobotProjectGUI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *
+ * @author dijan
+ * Class that remembers, for each robot, the obstacles near it, so the obstacle tree isn't searched for every
+ * robot every tick. Obstacles never move, so each robot's obstacles are found for a box a skin wider than it
+ * needs, and kept until the robot has moved out of that box or the tree has been built or refitted again.
+ * Each tick only the remembered obstacles are checked against the box actually needed, so the items found
+ * are the same as searching the tree.
+ */
+public class StaticNeighbours {
+	static final double DEFAULT_SKIN = 24; // extra distance searched around each robot, in pixels
+	private double skin;
+	private ArenaItem[] owners = new ArenaItem[0]; // robot each list was found for, by where it is in the robot list
+	private double[] foundX = new double[0], foundY = new double[0], foundReach = new double[0]; // box each list covers
+	private int[] versions = new int[0]; // version of the tree each list was found from
+	private ArenaItem[][] lists = new ArenaItem[0][];
+	private int[] sizes = new int[0];
+	private ArrayList<ArenaItem> found = new ArrayList<>(); // reused while searching the tree
+	private int refreshes; // times a list has been found from the tree
+
+	/**
+	 * Constructor for obstacle lists with a skin of a set width.
+	 * @param _skin Extra distance searched around each robot.
+	 */
+	StaticNeighbours(double _skin){
+		skin = _skin;
+	}
+
+	/**
+	 * Finds the obstacles whose boxes overlap the box around a robot, the same as StaticBVH.query.
+	 * @param tree Tree of obstacles, up to date.
+	 * @param robot Robot being checked.
+	 * @param index Where the robot is in the robot list.
+	 * @param reach Half the width of the box around the robot.
+	 * @param out List the obstacles are added to.
+	 */
+	public void query(StaticBVH tree, ArenaItem robot, int index, double reach, List<ArenaItem> out) {
+		if (index >= owners.length) {
+			int length = Math.max(index + 1, owners.length*2);
+			owners = Arrays.copyOf(owners, length);
+			foundX = Arrays.copyOf(foundX, length);
+			foundY = Arrays.copyOf(foundY, length);
+			foundReach = Arrays.copyOf(foundReach, length);
+			versions = Arrays.copyOf(versions, length);
+			lists = Arrays.copyOf(lists, length);
+			sizes = Arrays.copyOf(sizes, length);
+		}
+		double x = robot.getX(), y = robot.getY();
+		double room = foundReach[index] - reach; // how far the robot can be from where its list was found
+		if (owners[index] != robot || versions[index] != tree.getVersion()
+				|| Math.abs(x - foundX[index]) > room || Math.abs(y - foundY[index]) > room) {
+			refresh(tree, robot, index, reach);
+		}
+		ArenaItem[] list = lists[index];
+		for (int i=0; i<sizes[index]; i++) {
+			ArenaItem item = list[i];
+			if (item.getX() + item.getRadius() >= x - reach && item.getX() - item.getRadius() <= x + reach
+					&& item.getY() + item.getRadius() >= y - reach && item.getY() - item.getRadius() <= y + reach) {
+				out.add(item);
+			}
+		}
+	}
+
+	/**
+	 * Forgets every list, such as when the arena is cleared.
+	 */
+	public void clear() {
+		Arrays.fill(owners, null);
+		Arrays.fill(lists, null);
+		Arrays.fill(sizes, 0);
+	}
+
+	/**
+	 * Getter - Provides how many times a list has been found from the tree, used to check the skin is large enough.
+	 * @return Number of searches of the tree.
+	 */
+	public int getRefreshes() {
+		return refreshes;
+	}
+
+	/**
+	 * Finds a robot's obstacles from the tree, for a box a skin wider than it needs.
+	 */
+	private void refresh(StaticBVH tree, ArenaItem robot, int index, double reach) {
+		double wider = reach + skin;
+		found.clear();
+		tree.query(robot.getX() - wider, robot.getY() - wider, robot.getX() + wider, robot.getY() + wider, found);
+		if (lists[index] == null || lists[index].length < found.size()) {
+			lists[index] = new ArenaItem[Math.max(4, found.size())];
+		}
+		for (int i=0; i<found.size(); i++) {
+			lists[index][i] = found.get(i);
+		}
+		for (int i=found.size(); i<sizes[index]; i++) {
+			lists[index][i] = null; // don't hold on to obstacles that have been removed
+		}
+		sizes[index] = found.size();
+		owners[index] = robot;
+		foundX[index] = robot.getX();
+		foundY[index] = robot.getY();
+		foundReach[index] = wider;
+		versions[index] = tree.getVersion();
+		refreshes++;
+	}
+}
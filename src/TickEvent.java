@@ -0,0 +1,20 @@
+package RobotProjectGUI;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *
+ * @author dijan
+ * Flight recorder event covering one tick of the arena, from RobotArena.updateSystem.
+ */
+@Name("RobotProjectGUI.Tick")
+@Label("Tick")
+@Category("Robot Simulation")
+@Description("One update of every item in the arena")
+public class TickEvent extends jdk.jfr.Event {
+	@Label("Entity Count")
+	int entityCount;
+}
@@ -0,0 +1,173 @@
+package RobotProjectGUI;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author dijan
+ * Class that times each phase of a tick (moving, collisions, bullet cleanup, drawing and the status pane)
+ * and keeps the most recent timings of each, so the median, 99th percentile and slowest time can be shown.
+ * Timings are only taken while the profiler is enabled, otherwise each call just returns.
+ */
+public class TickProfiler {
+	static final int UPDATE = 0, COLLISIONS = 1, BULLETS = 2, DRAW = 3, STATUS = 4; // phases that are timed
+	static final String[] PHASE_NAMES = {"update", "collisions", "bullets", "draw", "status"};
+	static final int WINDOW = 240; // timings kept for each phase, about 4 seconds at 60 ticks a second
+	private long[][] samples = new long[PHASE_NAMES.length][WINDOW]; // nanoseconds, oldest overwritten first
+	private int[] sampleCount = new int[PHASE_NAMES.length];
+	private long[] pending = new long[PHASE_NAMES.length]; // time added up over a tick, for phases run many times per tick
+	private long[] tickTimes = new long[WINDOW]; // when each recent tick ended
+	private long[] frameTimes = new long[WINDOW]; // when each recent frame was shown
+	private int tickCount, frameCount;
+	private long[] sorted = new long[WINDOW]; // scratch space for working out percentiles
+	private boolean enabled = false;
+
+	/**
+	 * Turns timing on/off. Turning it on starts with no timings.
+	 * @param _enabled If phases are timed.
+	 */
+	public void setEnabled(boolean _enabled) {
+		if (_enabled && !enabled) {
+			Arrays.fill(sampleCount, 0);
+			Arrays.fill(pending, 0);
+			tickCount = 0;
+			frameCount = 0;
+		}
+		enabled = _enabled;
+	}
+
+	/**
+	 * Getter - Provides if phases are being timed.
+	 * @return If the profiler is enabled.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Starts timing a phase.
+	 * @return Time the phase started, passed to end or add.
+	 */
+	public long begin() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Stops timing a phase and keeps how long it took.
+	 * @param phase Phase being timed.
+	 * @param start Time returned by begin.
+	 */
+	public void end(int phase, long start) {
+		if (enabled) {
+			record(phase, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Stops timing one run of a phase that happens many times per tick, such as checking one robot for
+	 * collisions. The runs are added up and kept as one timing when the tick ends.
+	 * @param phase Phase being timed.
+	 * @param start Time returned by begin.
+	 */
+	public void add(int phase, long start) {
+		if (enabled) {
+			pending[phase] += System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Marks the end of a tick, keeping the added up timings and when the tick ended.
+	 */
+	public void endTick() {
+		if (!enabled) {
+			return;
+		}
+		for (int phase=0; phase<pending.length; phase++) {
+			if (pending[phase] > 0) {
+				record(phase, pending[phase]);
+				pending[phase] = 0;
+			}
+		}
+		tickTimes[tickCount++ % WINDOW] = System.nanoTime();
+	}
+
+	/**
+	 * Marks a frame being shown, used for the frame rate.
+	 */
+	public void endFrame() {
+		if (enabled) {
+			frameTimes[frameCount++ % WINDOW] = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Keeps a timing, overwriting the oldest once the window is full.
+	 * @param phase Phase that was timed.
+	 * @param nanos How long it took.
+	 */
+	private void record(int phase, long nanos) {
+		samples[phase][sampleCount[phase]++ % WINDOW] = nanos;
+	}
+
+	/**
+	 * Works out a percentile of the recent timings of a phase.
+	 * @param phase Phase being looked at.
+	 * @param percent Percentile wanted, 50 for the median, 100 for the slowest.
+	 * @return Timing in nanoseconds, 0 if the phase hasn't been timed.
+	 */
+	public long percentile(int phase, double percent) {
+		int n = Math.min(sampleCount[phase], WINDOW);
+		if (n == 0) {
+			return 0;
+		}
+		System.arraycopy(samples[phase], 0, sorted, 0, n);
+		Arrays.sort(sorted, 0, n);
+		int index = (int) Math.ceil(percent / 100 * n) - 1;
+		return sorted[Math.max(0, Math.min(n - 1, index))];
+	}
+
+	/**
+	 * Works out how many ticks happen a second, from the recent ticks.
+	 * @return Ticks per second.
+	 */
+	public double getTickRate() {
+		return rate(tickTimes, tickCount);
+	}
+
+	/**
+	 * Works out how many frames are shown a second, from the recent frames.
+	 * @return Frames per second.
+	 */
+	public double getFrameRate() {
+		return rate(frameTimes, frameCount);
+	}
+
+	/**
+	 * Works out how often something happened from when it recently happened.
+	 * @param times When it happened, in a ring.
+	 * @param count How many times it has happened.
+	 * @return Times per second.
+	 */
+	private static double rate(long[] times, int count) {
+		int n = Math.min(count, WINDOW);
+		if (n < 2) {
+			return 0;
+		}
+		long newest = times[(count - 1) % WINDOW];
+		long oldest = times[(count - n) % WINDOW];
+		return (n - 1) * 1e9 / Math.max(1, newest - oldest);
+	}
+
+	/**
+	 * Describes the timings of every phase, one line each.
+	 * @return Median, 99th percentile and slowest time of each phase in milliseconds.
+	 */
+	public String[] phaseLines() {
+		String[] lines = new String[PHASE_NAMES.length];
+		for (int phase=0; phase<PHASE_NAMES.length; phase++) {
+			lines[phase] = String.format("%-10s p50 %6.3f  p99 %6.3f  max %6.3f ms", PHASE_NAMES[phase],
+					percentile(phase, 50) / 1e6, percentile(phase, 99) / 1e6, percentile(phase, 100) / 1e6);
+		}
+		return lines;
+	}
+}
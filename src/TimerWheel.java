@@ -0,0 +1,196 @@
+package RobotProjectGUI;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author dijan
+ * Class that runs timers a set number of ticks in the future, such as party mode running out or a robot's
+ * collision cooldown ending, so items don't have to count down every tick. Timers are kept in a hierarchy of
+ * wheels: the first wheel has a slot for each of the next 64 ticks, the next has a slot for each of the next
+ * 64 blocks of 64 ticks, and so on. Each tick only looks at one slot of the first wheel, and timers in the
+ * outer wheels are moved inwards once their block comes round, so scheduling, cancelling and advancing are
+ * all constant time however many timers are waiting.
+ */
+public class TimerWheel {
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS; // slots per wheel
+	private static final int LEVELS = 4; // timers up to 64^4 ticks ahead go straight in, later ones are moved in as time passes
+	private Timer[][] wheels = new Timer[LEVELS][SLOTS]; // first timer in each slot, each slot is a linked list
+	private long now; // ticks advanced so far
+	private Timer[] due = new Timer[16]; // timers going off this tick, taken out of their slot before any are set off
+
+	/**
+	 *
+	 * @author dijan
+	 * Class that represents one timer of an item, which can be scheduled and cancelled many times.
+	 */
+	static class Timer {
+		private ArenaItem item; // told when the timer goes off
+		private int kind; // passed to the item, so it knows which of its timers went off
+		private long deadline; // tick the timer goes off on
+		private Timer prev, next; // neighbours in its slot
+		private int level = -1, slot = -1; // where it is, -1 when not in a slot
+		private boolean firing; // taken out of its slot to go off this tick, but not set off yet
+
+		/**
+		 * Constructor for a timer that isn't scheduled yet.
+		 * @param _item Item told when the timer goes off.
+		 * @param _kind Which of the item's timers it is.
+		 */
+		Timer(ArenaItem _item, int _kind){
+			item = _item;
+			kind = _kind;
+		}
+
+		/**
+		 * Checks if the timer is waiting to go off.
+		 * @return If the timer is scheduled.
+		 */
+		public boolean isScheduled() {
+			return level >= 0 || firing;
+		}
+	}
+
+	/**
+	 * Schedules a timer, replacing when it was going to go off if it was already scheduled.
+	 * @param timer Timer being scheduled.
+	 * @param delay Ticks from now until it goes off, at least 1.
+	 */
+	public void schedule(Timer timer, long delay) {
+		cancel(timer);
+		timer.deadline = now + Math.max(1, delay);
+		insert(timer);
+	}
+
+	/**
+	 * Stops a timer from going off, does nothing if it isn't scheduled.
+	 * @param timer Timer being cancelled.
+	 */
+	public void cancel(Timer timer) {
+		if (timer.firing) { // due this tick, it is skipped rather than set off
+			timer.firing = false;
+			return;
+		}
+		if (!timer.isScheduled()) {
+			return;
+		}
+		if (timer.prev != null) {
+			timer.prev.next = timer.next;
+		} else {
+			wheels[timer.level][timer.slot] = timer.next;
+		}
+		if (timer.next != null) {
+			timer.next.prev = timer.prev;
+		}
+		timer.prev = null;
+		timer.next = null;
+		timer.level = -1;
+		timer.slot = -1;
+	}
+
+	/**
+	 * Moves on one tick, setting off every timer due on it. Every due timer is taken out of its slot before
+	 * any are set off, so a timer set off can cancel or schedule any other timer, including one due on the
+	 * same tick, without breaking the slot.
+	 */
+	public void advance() {
+		now++;
+		int top = 0; // outermost wheel whose block has come round
+		while (top < LEVELS - 1 && (now & ((1L << (SLOT_BITS*(top+1))) - 1)) == 0) {
+			top++;
+		}
+		for (int level=top; level>=1; level--) { // outer wheels first, so timers can move in more than one wheel
+			cascade(level, (int) ((now >> (SLOT_BITS*level)) & (SLOTS - 1)));
+		}
+		int slot = (int) (now & (SLOTS - 1));
+		Timer timer = wheels[0][slot];
+		wheels[0][slot] = null; // taken as a whole, so timers rescheduled while firing aren't seen again
+		int dueCount = 0;
+		while (timer != null) {
+			Timer next = timer.next;
+			timer.prev = null;
+			timer.next = null;
+			timer.level = -1;
+			timer.slot = -1;
+			if (timer.deadline <= now) {
+				if (dueCount == due.length) {
+					due = Arrays.copyOf(due, dueCount*2);
+				}
+				timer.firing = true;
+				due[dueCount++] = timer;
+			} else {
+				insert(timer); // was further ahead than the wheels reach
+			}
+			timer = next;
+		}
+		for (int i=0; i<dueCount; i++) {
+			timer = due[i];
+			due[i] = null;
+			if (timer.firing) { // not cancelled or rescheduled by a timer set off before it
+				timer.firing = false;
+				timer.item.onTimer(timer.kind);
+			}
+		}
+	}
+
+	/**
+	 * Cancels every timer.
+	 */
+	public void clear() {
+		for (int i=0; i<due.length; i++) {
+			if (due[i] != null) {
+				due[i].firing = false; // cleared by a timer going off
+			}
+		}
+		for (int level=0; level<LEVELS; level++) {
+			for (int slot=0; slot<SLOTS; slot++) {
+				while (wheels[level][slot] != null) {
+					cancel(wheels[level][slot]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Getter - Provides how many ticks have passed.
+	 * @return Current tick.
+	 */
+	public long getTick() {
+		return now;
+	}
+
+	/**
+	 * Puts a timer into the innermost wheel that reaches its deadline.
+	 */
+	private void insert(Timer timer) {
+		long delta = timer.deadline - now;
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS*(level+1))) {
+			level++;
+		}
+		long at = Math.min(timer.deadline, now + (1L << (SLOT_BITS*LEVELS)) - 1); // too far ahead goes in the furthest slot
+		int slot = (int) ((at >> (SLOT_BITS*level)) & (SLOTS - 1));
+		timer.level = level;
+		timer.slot = slot;
+		timer.prev = null;
+		timer.next = wheels[level][slot];
+		if (timer.next != null) {
+			timer.next.prev = timer;
+		}
+		wheels[level][slot] = timer;
+	}
+
+	/**
+	 * Takes every timer out of a slot of an outer wheel and puts it back in, which moves it inwards.
+	 */
+	private void cascade(int level, int slot) {
+		Timer timer = wheels[level][slot];
+		wheels[level][slot] = null;
+		while (timer != null) {
+			Timer next = timer.next;
+			insert(timer);
+			timer = next;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package RobotProjectGUI;
+
+/**
+ *
+ * @author dijan
+ * Class that checks the timer wheel still sets off every timer when a timer going off cancels or reschedules
+ * other timers due on the same tick. Prints what failed and exits with status 1 if anything did.
+ *
+ * Usage: TimerWheelCheck
+ */
+public class TimerWheelCheck {
+	private static int failures;
+
+	/**
+	 *
+	 * @author dijan
+	 * Class that represents an item that counts its timers going off, and can cancel or reschedule another
+	 * item's timer when its own goes off.
+	 */
+	static class CountingItem extends ArenaItem {
+		private int fired; // times any of its timers have gone off
+		private CountingItem other; // item whose timer is changed when this one's goes off, null for none
+		private boolean reschedule; // if the other item's timer is rescheduled rather than cancelled
+
+		/**
+		 * Constructor for an item that only counts its timers.
+		 * @param wheel Timer wheel the item's timers go on.
+		 */
+		CountingItem(TimerWheel wheel){
+			super(0, 0, 1, 'b');
+			setTimerWheel(wheel);
+		}
+
+		@Override
+		protected void onTimer(int kind) {
+			fired++;
+			if (other != null && reschedule) {
+				other.schedule(COOLDOWN_END, 5);
+			} else if (other != null) {
+				other.cancelTimer(COOLDOWN_END);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "Counting item " + getID() + "\n";
+		}
+
+		@Override
+		public String getSaveString() {
+			return "";
+		}
+	}
+
+	/**
+	 * Runs every check.
+	 * @param args Not used.
+	 */
+	public static void main(String[] args) {
+		cancelFromCallback();
+		rescheduleFromCallback();
+		partyEndingWithCooldownDue();
+		if (failures > 0) {
+			System.out.println(failures + " check(s) failed");
+			System.exit(1);
+		}
+		System.out.println("All timer wheel checks passed");
+	}
+
+	/**
+	 * A timer cancels another timer due on the same tick: the cancelled one doesn't go off, and every other
+	 * timer due on that tick still does.
+	 */
+	private static void cancelFromCallback() {
+		TimerWheel wheel = new TimerWheel();
+		CountingItem[] behind = new CountingItem[5];
+		for (int i=0; i<behind.length; i++) { // scheduled first, so they are after the others in the slot
+			behind[i] = new CountingItem(wheel);
+			behind[i].schedule(ArenaItem.COOLDOWN_END, 10);
+		}
+		CountingItem cancelled = new CountingItem(wheel);
+		cancelled.schedule(ArenaItem.COOLDOWN_END, 10);
+		CountingItem canceller = new CountingItem(wheel);
+		canceller.other = cancelled;
+		canceller.schedule(ArenaItem.COOLDOWN_END, 10);
+		advance(wheel, 10);
+		check(canceller.fired == 1, "cancelling timer went off once");
+		check(cancelled.fired == 0, "cancelled timer didn't go off");
+		check(!cancelled.isTimerScheduled(ArenaItem.COOLDOWN_END), "cancelled timer isn't scheduled");
+		for (int i=0; i<behind.length; i++) {
+			check(behind[i].fired == 1, "timer " + i + " behind the cancelled one went off");
+			check(!behind[i].isTimerScheduled(ArenaItem.COOLDOWN_END), "timer " + i + " isn't scheduled after going off");
+		}
+	}
+
+	/**
+	 * A timer reschedules another timer due on the same tick: it goes off at its new time instead.
+	 */
+	private static void rescheduleFromCallback() {
+		TimerWheel wheel = new TimerWheel();
+		CountingItem moved = new CountingItem(wheel);
+		moved.schedule(ArenaItem.COOLDOWN_END, 10);
+		CountingItem mover = new CountingItem(wheel);
+		mover.other = moved;
+		mover.reschedule = true;
+		mover.schedule(ArenaItem.COOLDOWN_END, 10);
+		advance(wheel, 10);
+		check(moved.fired == 0, "rescheduled timer didn't go off at its old time");
+		check(moved.isTimerScheduled(ArenaItem.COOLDOWN_END), "rescheduled timer is still scheduled");
+		advance(wheel, 5);
+		check(moved.fired == 1, "rescheduled timer went off at its new time");
+	}
+
+	/**
+	 * Party mode ending cancels the robot's colour change due on the same tick, which mustn't stop another
+	 * robot's collision cooldown due then from ending.
+	 */
+	private static void partyEndingWithCooldownDue() {
+		TimerWheel wheel = new TimerWheel();
+		Robot cooling = new Robot(0, 0, 0, 'b');
+		cooling.setTimerWheel(wheel);
+		cooling.schedule(ArenaItem.COOLDOWN_END, ArenaItem.PARTY_LENGTH);
+		Robot party = new Robot(0, 0, 0, 'b');
+		party.setTimerWheel(wheel);
+		party.setParty();
+		advance(wheel, 2*ArenaItem.PARTY_LENGTH);
+		check(!party.getIsParty(), "party mode ended");
+		check(!party.isTimerScheduled(ArenaItem.COLOUR_CHANGE), "colour change cancelled when party mode ended");
+		check(!cooling.isCoolingDown(), "cooldown due as party mode ended has ended");
+	}
+
+	/**
+	 * Moves a wheel on a number of ticks.
+	 */
+	private static void advance(TimerWheel wheel, int ticks) {
+		for (int i=0; i<ticks; i++) {
+			wheel.advance();
+		}
+	}
+
+	/**
+	 * Records a check, printing it if it failed.
+	 */
+	private static void check(boolean passed, String description) {
+		if (!passed) {
+			failures++;
+			System.out.println("FAILED: " + description);
+		}
+	}
+}
@@ -0,0 +1,291 @@
+package RobotProjectGUI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *
+ * @author dijan
+ * Class that holds the arena's walls, line segments such as the walls of a maze, in an R-tree: a tree of boxes
+ * where each box holds up to 16 smaller boxes or walls. Checking if a robot is touching a wall only opens the
+ * boxes near it, so it doesn't matter how many walls there are. Walls never move, so the tree is packed in one
+ * go (Sort-Tile-Recursive): walls are sorted into vertical strips by x, each strip is sorted by y and cut into
+ * boxes, and the same is done with those boxes until there is only one. It is packed again when walls are added.
+ */
+public class WallTree {
+	private static final int NODE_SIZE = 16; // most walls or boxes in a box
+	private Line[] walls = new Line[0]; // walls, each leaf holds a run of them once packed
+	private double[] wallBoxes = new double[0]; // minX, minY, maxX, maxY of each wall
+	private int wallCount;
+	private double[] minX = new double[0], minY = new double[0], maxX = new double[0], maxY = new double[0]; // box of each node
+	private int[] first = new int[0], count = new int[0]; // run of walls in each leaf, or of child nodes in each other node
+	private int leafCount; // nodes before this are leaves
+	private int nodeCount; // the last node is the root
+	private int[] stack = new int[64]; // nodes waiting to be opened during a query
+	private boolean stale; // if walls have been added since the tree was packed
+	private ArrayList<Line> nearby = new ArrayList<>(); // reused while checking walls near a point
+	private int lastTests; // walls checked by the last query
+
+	/**
+	 * Adds a wall, the tree is packed again before it is next used.
+	 * @param wall Wall being added.
+	 */
+	public void add(Line wall) {
+		if (wallCount == walls.length) {
+			walls = Arrays.copyOf(walls, Math.max(64, walls.length*2));
+		}
+		walls[wallCount++] = wall;
+		stale = true;
+	}
+
+	/**
+	 * Removes every wall.
+	 */
+	public void clear() {
+		Arrays.fill(walls, 0, wallCount, null);
+		wallCount = 0;
+		nodeCount = 0;
+		leafCount = 0;
+		stale = false;
+	}
+
+	/**
+	 * Getter - Provides the number of walls.
+	 * @return Number of walls.
+	 */
+	public int size() {
+		return wallCount;
+	}
+
+	/**
+	 * Getter - Provides a wall, the order changes when the tree is packed.
+	 * @param index Which wall, from 0 to size()-1.
+	 * @return The wall.
+	 */
+	public Line get(int index) {
+		return walls[index];
+	}
+
+	/**
+	 * Finds the walls whose boxes overlap a rectangle, which may or may not touch it.
+	 * @param queryMinX Left edge.
+	 * @param queryMinY Top edge.
+	 * @param queryMaxX Right edge.
+	 * @param queryMaxY Bottom edge.
+	 * @param out List the walls are added to.
+	 */
+	public void query(double queryMinX, double queryMinY, double queryMaxX, double queryMaxY, List<Line> out) {
+		lastTests = 0;
+		if (stale) {
+			pack();
+		}
+		if (nodeCount == 0) {
+			return;
+		}
+		int top = 0;
+		stack[top++] = nodeCount - 1;
+		while (top > 0) {
+			int node = stack[--top];
+			if (queryMaxX < minX[node] || queryMinX > maxX[node] || queryMaxY < minY[node] || queryMinY > maxY[node]) {
+				continue; // nothing in this box can overlap
+			}
+			if (node < leafCount) {
+				for (int i=first[node]; i<first[node]+count[node]; i++) {
+					lastTests++;
+					if (queryMaxX >= wallBoxes[i*4] && queryMinX <= wallBoxes[i*4+2]
+							&& queryMaxY >= wallBoxes[i*4+1] && queryMinY <= wallBoxes[i*4+3]) {
+						out.add(walls[i]);
+					}
+				}
+			} else {
+				if (top + count[node] > stack.length) {
+					stack = Arrays.copyOf(stack, Math.max(stack.length*2, top + count[node]));
+				}
+				for (int i=first[node]; i<first[node]+count[node]; i++) {
+					stack[top++] = i;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks if any wall is closer to a point than a distance, such as a robot's body touching a wall.
+	 * @param x Point's x position.
+	 * @param y Point's y position.
+	 * @param distance How close a wall has to be.
+	 * @return If a wall is that close.
+	 */
+	public boolean anyWithin(double x, double y, double distance) {
+		return distanceTo(x, y, distance) < distance;
+	}
+
+	/**
+	 * Works out how far a point is from the closest wall, only looking as far as a limit.
+	 * @param x Point's x position.
+	 * @param y Point's y position.
+	 * @param limit Furthest a wall is looked for.
+	 * @return Distance to the closest wall, or the limit if there is none closer.
+	 */
+	public double distanceTo(double x, double y, double limit) {
+		if (wallCount == 0) {
+			return limit;
+		}
+		nearby.clear();
+		query(x - limit, y - limit, x + limit, y + limit, nearby);
+		double closest = limit;
+		for (int i=0; i<nearby.size(); i++) {
+			closest = Math.min(closest, nearby.get(i).distanceFrom(x, y));
+		}
+		return closest;
+	}
+
+	/**
+	 * Checks if a line crosses any wall, such as a whisker or the path of a bullet.
+	 * @param line Line being checked.
+	 * @return If the line crosses a wall.
+	 */
+	public boolean anyCrossing(Line line) {
+		if (wallCount == 0) {
+			return false;
+		}
+		double[] ends = line.getLinePos();
+		nearby.clear();
+		query(Math.min(ends[0], ends[2]), Math.min(ends[1], ends[3]), Math.max(ends[0], ends[2]), Math.max(ends[1], ends[3]), nearby);
+		for (int i=0; i<nearby.size(); i++) {
+			if (line.findintersection(nearby.get(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Getter - Provides how many walls the last query checked, used to check the tree is working.
+	 * @return Number of walls checked.
+	 */
+	public int getLastTests() {
+		return lastTests;
+	}
+
+	/**
+	 * Packs the tree from the walls, leaves first, then each level of boxes above them until there is one box.
+	 */
+	private void pack() {
+		stale = false;
+		int n = wallCount;
+		double[] centreX = new double[n], centreY = new double[n];
+		for (int i=0; i<n; i++) {
+			double[] ends = walls[i].getLinePos();
+			centreX[i] = (ends[0] + ends[2]) / 2;
+			centreY[i] = (ends[1] + ends[3]) / 2;
+		}
+		int[] order = tileOrder(centreX, centreY, n);
+		Line[] sorted = new Line[walls.length];
+		for (int i=0; i<n; i++) {
+			sorted[i] = walls[order[i]];
+		}
+		walls = sorted;
+		wallBoxes = new double[n*4];
+		for (int i=0; i<n; i++) {
+			double[] ends = walls[i].getLinePos();
+			wallBoxes[i*4] = Math.min(ends[0], ends[2]);
+			wallBoxes[i*4+1] = Math.min(ends[1], ends[3]);
+			wallBoxes[i*4+2] = Math.max(ends[0], ends[2]);
+			wallBoxes[i*4+3] = Math.max(ends[1], ends[3]);
+		}
+		leafCount = (n + NODE_SIZE - 1) / NODE_SIZE;
+		int maxNodes = 2*leafCount + 1; // each level has at most a sixteenth of the nodes of the one below
+		minX = new double[maxNodes];
+		minY = new double[maxNodes];
+		maxX = new double[maxNodes];
+		maxY = new double[maxNodes];
+		first = new int[maxNodes];
+		count = new int[maxNodes];
+		for (int leaf=0; leaf<leafCount; leaf++) {
+			first[leaf] = leaf*NODE_SIZE;
+			count[leaf] = Math.min(NODE_SIZE, n - first[leaf]);
+			minX[leaf] = minY[leaf] = Double.MAX_VALUE;
+			maxX[leaf] = maxY[leaf] = -Double.MAX_VALUE;
+			for (int i=first[leaf]; i<first[leaf]+count[leaf]; i++) {
+				minX[leaf] = Math.min(minX[leaf], wallBoxes[i*4]);
+				minY[leaf] = Math.min(minY[leaf], wallBoxes[i*4+1]);
+				maxX[leaf] = Math.max(maxX[leaf], wallBoxes[i*4+2]);
+				maxY[leaf] = Math.max(maxY[leaf], wallBoxes[i*4+3]);
+			}
+		}
+		int levelStart = 0, levelEnd = leafCount;
+		while (levelEnd - levelStart > 1) {
+			int size = levelEnd - levelStart;
+			centreX = new double[size];
+			centreY = new double[size];
+			for (int i=0; i<size; i++) {
+				centreX[i] = (minX[levelStart+i] + maxX[levelStart+i]) / 2;
+				centreY[i] = (minY[levelStart+i] + maxY[levelStart+i]) / 2;
+			}
+			reorderNodes(levelStart, tileOrder(centreX, centreY, size));
+			int parents = (size + NODE_SIZE - 1) / NODE_SIZE;
+			for (int p=0; p<parents; p++) {
+				int node = levelEnd + p;
+				first[node] = levelStart + p*NODE_SIZE;
+				count[node] = Math.min(NODE_SIZE, levelEnd - first[node]);
+				minX[node] = minY[node] = Double.MAX_VALUE;
+				maxX[node] = maxY[node] = -Double.MAX_VALUE;
+				for (int child=first[node]; child<first[node]+count[node]; child++) {
+					minX[node] = Math.min(minX[node], minX[child]);
+					minY[node] = Math.min(minY[node], minY[child]);
+					maxX[node] = Math.max(maxX[node], maxX[child]);
+					maxY[node] = Math.max(maxY[node], maxY[child]);
+				}
+			}
+			levelStart = levelEnd;
+			levelEnd += parents;
+		}
+		nodeCount = levelEnd;
+	}
+
+	/**
+	 * Works out the order entries are packed in: sorted by x, cut into vertical strips of whole boxes,
+	 * and each strip sorted by y.
+	 * @param centreX Centre x position of each entry.
+	 * @param centreY Centre y position of each entry.
+	 * @param n Number of entries.
+	 * @return Index of each entry, in packing order.
+	 */
+	private static int[] tileOrder(double[] centreX, double[] centreY, int n) {
+		Integer[] order = new Integer[n];
+		for (int i=0; i<n; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Double.compare(centreX[a], centreX[b]));
+		int boxes = (n + NODE_SIZE - 1) / NODE_SIZE;
+		int strips = (int) Math.ceil(Math.sqrt(boxes));
+		int stripSize = (int) Math.ceil((double) boxes / Math.max(1, strips)) * NODE_SIZE; // strips hold whole boxes
+		for (int from=0; from<n; from+=stripSize) {
+			Arrays.sort(order, from, Math.min(n, from + stripSize), (a, b) -> Double.compare(centreY[a], centreY[b]));
+		}
+		int[] result = new int[n];
+		for (int i=0; i<n; i++) {
+			result[i] = order[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Moves a level's nodes into packing order. Their own children don't move, so they stay correct.
+	 */
+	private void reorderNodes(int start, int[] order) {
+		int n = order.length;
+		double[] oldMinX = Arrays.copyOfRange(minX, start, start + n), oldMinY = Arrays.copyOfRange(minY, start, start + n);
+		double[] oldMaxX = Arrays.copyOfRange(maxX, start, start + n), oldMaxY = Arrays.copyOfRange(maxY, start, start + n);
+		int[] oldFirst = Arrays.copyOfRange(first, start, start + n), oldCount = Arrays.copyOfRange(count, start, start + n);
+		for (int i=0; i<n; i++) {
+			minX[start+i] = oldMinX[order[i]];
+			minY[start+i] = oldMinY[order[i]];
+			maxX[start+i] = oldMaxX[order[i]];
+			maxY[start+i] = oldMaxY[order[i]];
+			first[start+i] = oldFirst[order[i]];
+			count[start+i] = oldCount[order[i]];
+		}
+	}
+}
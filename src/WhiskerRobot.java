@@ -53,16 +53,23 @@ public class WhiskerRobot extends Robot{
 	public void drawObject(MyCanvas mc){
 		char robotColour = getIsParty() ? partyMode() : 'y';
 		mc.showWhiskerRobot(getX(), getY(), getHeight(), getWidth(), getRadius(), getAngle(), robotColour);
-		if (getIsParty()) {
-			setSpeed(2); // adjust speed, needs to be fixed
-		}
 		//mc.testLine(whisker1);
 		//mc.testLine(whisker2);
 	}	
 	
+	/**
+	 * Whisker robot reaches out to the end of its whiskers.
+	 * @return Half the width of the square the robot is drawn in.
+	 */
+	@Override
+	protected double getDrawExtent() {
+		return Math.max(super.getDrawExtent(), Math.hypot(getRadius() + 15, getRadius() + getHeight() + 15));
+	}
+	
 	/**
 	 * Checks if the position it is going to is valid. First checks if its whiskers are hitting the wall, and then if the body is hitting
-	 * the wall.
+	 * the wall. Whiskers are checked against the arena's walls where they would be at the new position, as drawn, so turning
+	 * away from a wall moves them off it.
 	 */
 	@Override
     public boolean isValidPosition(double newX, double newY, MyCanvas mc) {
@@ -75,16 +82,34 @@ public class WhiskerRobot extends Robot{
         		return false; // if either whisker intersects with any of the walls, then it is not a valid position
         	}
         }
-        return newX - getRobotWidth()  >= 0 && newX + getRobotWidth() <= canvasWidth && newY - getRobotHeight() >= 0 && newY + getRobotHeight() <= canvasHeight;
+        if (crossesWall(whiskerAt(newX, newY, getRadius(), getRadius()+getHeight()+15))
+        		|| crossesWall(whiskerAt(newX, newY, -getRadius(), -getRadius()-15))) {
+        	return false; // a whisker is touching one of the arena's walls
+        }
+        return super.isValidPosition(newX, newY, mc);
     }
 	
+	/**
+	 * Works out where a whisker is when the robot is at a position, rotated to the robot's angle the same way it is drawn.
+	 * @param x Robot's x position.
+	 * @param y Robot's y position.
+	 * @param startY Distance of the whisker's start to the side of the robot's centre, before rotating.
+	 * @param endY Distance of the whisker's end to the side of the robot's centre, before rotating.
+	 * @return The whisker.
+	 */
+	private Line whiskerAt(double x, double y, double startY, double endY) {
+		double cos = Math.cos(Math.toRadians(getAngle()));
+		double sin = Math.sin(Math.toRadians(getAngle()));
+		double startX = getRadius(), endX = getRadius() + 15; // ahead of the centre, before rotating
+		return new Line(x + startX*cos - startY*sin, y + startX*sin + startY*cos, x + endX*cos - endY*sin, y + endX*sin + endY*cos);
+	}
+	
 	/**
 	 * Logic for handling how the robot moves. If a collision occurs, robot needs to have a cooldown
 	 * so that they can move after rotating.
 	 */
 	@Override
 	public void updatePosition(MyCanvas mc, boolean isCollision) {
-		collideCooldown--;
         double newX = (getX() + (Math.cos(Math.toRadians(getAngle())))*getSpeed());
         double newY = (getY() + (Math.sin(Math.toRadians(getAngle())))*getSpeed());
         
@@ -96,7 +121,7 @@ public class WhiskerRobot extends Robot{
         double whisker2StartY = getY() + getRadius() * Math.sin(Math.toRadians(getAngle())) - getRadius();
         
         // whichDirection is left, !whichDirection is right
-        if (isValidPosition(newX, newY, mc) && !isCollision || collideCooldown > 0) {
+        if (isValidPosition(newX, newY, mc) && !isCollision || isCoolingDown() && !isBlockedByWall(newX, newY, getRobotWidth())) { // cooling down still stops at walls
         	setPosition(newX, newY);
         	whisker1 = new Line(whisker1StartX, whisker1StartY, whisker1StartX + 15, whisker1StartY + getHeight() + 15);
             whisker2 = new Line(whisker2StartX, whisker2StartY, whisker2StartX + 15, whisker2StartY - 15);
@@ -109,11 +134,11 @@ public class WhiskerRobot extends Robot{
         	setAngle(getAngle()+90);
         	//whisker1.rotate(getAngle());
         	//whisker2.rotate(getAngle());
-        } else if (isCollision && collideCooldown <= 0) {
+        } else if (isCollision && !isCoolingDown()) {
         	setAngle(getAngle()+90);
         	//whisker1.rotate(getAngle());
         	//whisker2.rotate(getAngle());
-        	collideCooldown = COOLDOWN_PERIOD;
+        	startCooldown();
         }
 	}
 	